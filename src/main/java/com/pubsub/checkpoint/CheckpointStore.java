@@ -0,0 +1,32 @@
+package com.pubsub.checkpoint;
+
+import com.google.protobuf.ByteString;
+
+import java.util.Optional;
+
+/**
+ * Stores the replay ID of the last fully processed event per topic, so that a subscription can resume
+ * with {@code ReplayPreset.CUSTOM} after a reconnect or restart instead of skipping to the latest event.
+ *
+ * {@link #save} is called for every processed event and must not block on I/O; implementations are
+ * expected to coalesce and persist checkpoints in the background.
+ */
+public interface CheckpointStore {
+
+    /**
+     * @return the last saved replay ID of the topic, if any
+     */
+    Optional<ByteString> load(String topic);
+
+    void save(String topic, ByteString replayId);
+
+    /**
+     * Forgets the checkpoint of a topic, e.g. when the server no longer accepts its replay ID.
+     */
+    void remove(String topic);
+
+    /**
+     * Persists all checkpoints saved so far.
+     */
+    void flush();
+}
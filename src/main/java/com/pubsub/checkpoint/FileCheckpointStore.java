@@ -0,0 +1,232 @@
+package com.pubsub.checkpoint;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.CheckpointException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists checkpoints to an append-only log file.
+ *
+ * {@link #save} only updates memory. A background thread appends the latest replay ID of every topic
+ * that changed since the previous flush as one write, followed by at most one fsync, so the cost of
+ * durability is per flush interval rather than per event. Each record is a line {@code topic<TAB>base64};
+ * an empty value marks a removal. On startup the log is replayed and the last complete record per topic
+ * wins, so a record torn by a crash is ignored. Once enough records have been appended the log is
+ * rewritten with one record per topic and atomically moved into place.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "pubsub.checkpoint.store", havingValue = "file", matchIfMissing = true)
+public class FileCheckpointStore implements CheckpointStore {
+
+    private static final String LOG_LOADED = "Loaded {} replay checkpoints from {}";
+    private static final String LOG_SKIPPED_RECORD = "Skipping malformed checkpoint record in {}: {}";
+    private static final String LOG_COMPACTED = "Compacted checkpoint log {} to {} records";
+    private static final String ERROR_LOAD = "Failed to read replay checkpoints from ";
+    private static final String ERROR_WRITE = "Failed to write replay checkpoints to ";
+    private static final char SEPARATOR = '\t';
+    private static final char RECORD_END = '\n';
+
+    private final Path file;
+    private final boolean fsync;
+    private final long compactAfterRecords;
+    private final Map<String, ByteString> checkpoints = new ConcurrentHashMap<>();
+    // Latest value per topic not yet written; ByteString.EMPTY marks a removal
+    private final Map<String, ByteString> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by this
+    private FileChannel channel;
+    private long records;
+
+    public FileCheckpointStore(PubSubConfiguration config) {
+        PubSubConfiguration.CheckpointConfig checkpointConfig = config.getCheckpoint();
+        this.file = Path.of(checkpointConfig.getFile());
+        this.fsync = checkpointConfig.isFsync();
+        this.compactAfterRecords = checkpointConfig.getCompactAfterRecords();
+        this.records = readLog();
+
+        long interval = checkpointConfig.getFlushIntervalMs();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<ByteString> load(String topic) {
+        return Optional.ofNullable(checkpoints.get(topic));
+    }
+
+    @Override
+    public void save(String topic, ByteString replayId) {
+        checkpoints.put(topic, replayId);
+        pending.put(topic, replayId);
+    }
+
+    @Override
+    public void remove(String topic) {
+        checkpoints.remove(topic);
+        pending.put(topic, ByteString.EMPTY);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, ByteString> batch = new LinkedHashMap<>();
+        for (String topic : pending.keySet()) {
+            ByteString replayId = pending.remove(topic);
+            if (replayId != null) {
+                batch.put(topic, replayId);
+            }
+        }
+
+        StringBuilder lines = new StringBuilder();
+        batch.forEach((topic, replayId) -> appendRecord(lines, topic, replayId));
+        try {
+            write(openChannel(), lines);
+            records += batch.size();
+            if (records >= compactAfterRecords) {
+                compact();
+            }
+        } catch (IOException e) {
+            // Put the batch back unless a newer value was saved meanwhile
+            batch.forEach(pending::putIfAbsent);
+            throw new CheckpointException(ERROR_WRITE + file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flush();
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private long readLog() {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        String content;
+        try {
+            content = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new CheckpointException(ERROR_LOAD + file, e);
+        }
+
+        // Anything after the last record end was torn by a crash
+        int end = content.lastIndexOf(RECORD_END);
+        long count = 0;
+        for (String line : content.substring(0, end + 1).split(String.valueOf(RECORD_END))) {
+            int separator = line.indexOf(SEPARATOR);
+            if (separator <= 0) {
+                log.warn(LOG_SKIPPED_RECORD, file, line);
+                continue;
+            }
+            String topic = line.substring(0, separator);
+            String value = line.substring(separator + 1);
+            try {
+                if (value.isEmpty()) {
+                    checkpoints.remove(topic);
+                } else {
+                    checkpoints.put(topic, ByteString.copyFrom(Base64.getDecoder().decode(value)));
+                }
+                count++;
+            } catch (IllegalArgumentException e) {
+                log.warn(LOG_SKIPPED_RECORD, file, line);
+            }
+        }
+        log.info(LOG_LOADED, checkpoints.size(), file);
+        return count;
+    }
+
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".tmp");
+        StringBuilder lines = new StringBuilder();
+        checkpoints.forEach((topic, replayId) -> appendRecord(lines, topic, replayId));
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(out, lines);
+        }
+        closeChannel();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        records = checkpoints.size();
+        log.info(LOG_COMPACTED, file, records);
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private synchronized void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn(ERROR_WRITE + file, e);
+        }
+        channel = null;
+    }
+
+    private void write(FileChannel out, CharSequence lines) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(lines.toString());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        if (fsync) {
+            out.force(false);
+        }
+    }
+
+    private static void appendRecord(StringBuilder lines, String topic, ByteString replayId) {
+        lines.append(topic)
+                .append(SEPARATOR)
+                .append(Base64.getEncoder().encodeToString(replayId.toByteArray()))
+                .append(RECORD_END);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pubsub.checkpoint;
+
+import com.google.protobuf.ByteString;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps checkpoints for the lifetime of the process only. Subscriptions resume after a reconnect,
+ * but not after a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "pubsub.checkpoint.store", havingValue = "memory")
+public class InMemoryCheckpointStore implements CheckpointStore {
+
+    private final Map<String, ByteString> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<ByteString> load(String topic) {
+        return Optional.ofNullable(checkpoints.get(topic));
+    }
+
+    @Override
+    public void save(String topic, ByteString replayId) {
+        checkpoints.put(topic, replayId);
+    }
+
+    @Override
+    public void remove(String topic) {
+        checkpoints.remove(topic);
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to persist
+    }
+}
@@ -0,0 +1,63 @@
+package com.pubsub.checkpoint;
+
+import com.google.protobuf.ByteString;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Advances the checkpoint of one subscription in delivery order when events complete out of order.
+ *
+ * Each received event is registered in delivery order. The checkpoint only moves to an event's replay ID
+ * once that event and every event delivered before it have completed, so a restart never skips an event
+ * that was still being processed.
+ */
+public class ReplayCheckpointTracker {
+
+    private final Consumer<ByteString> onAdvance;
+    // Completed events that are waiting for an earlier event to complete
+    private final NavigableMap<Long, ByteString> completed = new TreeMap<>();
+    private long nextSequence;
+    private long nextToCommit;
+
+    /**
+     * @param onAdvance receives the new checkpoint each time it advances
+     */
+    public ReplayCheckpointTracker(Consumer<ByteString> onAdvance) {
+        this.onAdvance = onAdvance;
+    }
+
+    /**
+     * @return the sequence number of the next delivered event
+     */
+    public synchronized long register() {
+        return nextSequence++;
+    }
+
+    public synchronized void complete(long sequence, ByteString replayId) {
+        completed.put(sequence, replayId);
+        ByteString latest = null;
+        while (!completed.isEmpty() && completed.firstKey() == nextToCommit) {
+            latest = completed.pollFirstEntry().getValue();
+            nextToCommit++;
+        }
+        if (latest != null) {
+            onAdvance.accept(latest);
+        }
+    }
+
+    /**
+     * @return number of events covered by the checkpoint so far
+     */
+    public synchronized long getCheckpointed() {
+        return nextToCommit;
+    }
+
+    /**
+     * @return whether every registered event has completed
+     */
+    public synchronized boolean isCaughtUp() {
+        return nextToCommit == nextSequence;
+    }
+}
@@ -1,5 +1,6 @@
 package com.pubsub.config;
 
+import com.pubsub.events.IProcessBatchObserver;
 import com.pubsub.events.IProcessEventObserver;
 import com.pubsub.events.ProcessEventManager;
 import lombok.RequiredArgsConstructor;
@@ -9,27 +10,46 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @RequiredArgsConstructor
 @Slf4j
 public class ObserverConfig {
+    private static final String LOG_ALREADY_REGISTERED = "Observer {} is already registered for {}; skipping the duplicate";
+
     private final ProcessEventManager processEventManager;
     private final ApplicationContext applicationContext;
     private final SalesforceSubscribeConfig salesforceSubscribeConfig;
 
+    // Observers registered per topic, so that a topic listed both in active-events and in subscriptions
+    // does not register the same observer twice
+    private final Map<String, Set<IProcessEventObserver>> registeredObservers = new HashMap<>();
+    private final Map<String, Set<IProcessBatchObserver>> registeredBatchObservers = new HashMap<>();
+
     @PostConstruct
     public void registerObservers() {
         var observers = applicationContext.getBeansOfType(IProcessEventObserver.class).values();
+        var batchObservers = applicationContext.getBeansOfType(IProcessBatchObserver.class).values();
         var activeEvents = salesforceSubscribeConfig.getActiveEvents();
 
         activeEvents.forEach(event -> {
             boolean observerRegistered = false;
 
             for (IProcessEventObserver observer : observers) {
-                Component componentAnnotation = observer.getClass().getAnnotation(Component.class);
-                if (componentAnnotation != null && event.equals(componentAnnotation.value())) {
-                    processEventManager.registerObserver(event, observer);
+                if (isObserverFor(observer, event)) {
+                    register(event, observer);
+                    observerRegistered = true;
+                }
+            }
+
+            for (IProcessBatchObserver observer : batchObservers) {
+                if (isObserverFor(observer, event)) {
+                    register(event, observer);
                     observerRegistered = true;
                 }
             }
@@ -38,5 +58,54 @@ public class ObserverConfig {
                 log.info("No observer found for event: {}", event);
             }
         });
+
+        salesforceSubscribeConfig.getSubscriptions().forEach(this::registerConfiguredObservers);
+    }
+
+    /**
+     * Registers the observer beans named in a subscription definition, after applying its concurrency.
+     */
+    private void registerConfiguredObservers(SalesforceSubscribeConfig.TopicSubscription subscription) {
+        String topic = subscription.getTopic();
+        if (subscription.getConcurrency() != null) {
+            processEventManager.setTopicConcurrency(topic, subscription.getConcurrency());
+        }
+        for (String beanName : subscription.getObservers()) {
+            Object observer = applicationContext.getBean(beanName);
+            boolean registered = false;
+            if (observer instanceof IProcessEventObserver eventObserver) {
+                register(topic, eventObserver);
+                registered = true;
+            }
+            if (observer instanceof IProcessBatchObserver batchObserver) {
+                register(topic, batchObserver);
+                registered = true;
+            }
+            if (!registered) {
+                throw new IllegalArgumentException("Bean " + beanName + " configured as observer of " + topic
+                        + " is neither an IProcessEventObserver nor an IProcessBatchObserver");
+            }
+        }
+    }
+
+    private void register(String topic, IProcessEventObserver observer) {
+        if (registeredObservers.computeIfAbsent(topic, t -> Collections.newSetFromMap(new IdentityHashMap<>())).add(observer)) {
+            processEventManager.registerObserver(topic, observer);
+        } else {
+            log.info(LOG_ALREADY_REGISTERED, observer.getClass().getSimpleName(), topic);
+        }
+    }
+
+    private void register(String topic, IProcessBatchObserver observer) {
+        if (registeredBatchObservers.computeIfAbsent(topic, t -> Collections.newSetFromMap(new IdentityHashMap<>())).add(observer)) {
+            processEventManager.registerBatchObserver(topic, observer);
+        } else {
+            log.info(LOG_ALREADY_REGISTERED, observer.getClass().getSimpleName(), topic);
+        }
+    }
+
+    private static boolean isObserverFor(Object observer, String event) {
+        Component componentAnnotation = observer.getClass().getAnnotation(Component.class);
+        return componentAnnotation != null && event.equals(componentAnnotation.value());
     }
-}
\ No newline at end of file
+}
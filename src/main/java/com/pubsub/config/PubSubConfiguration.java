@@ -1,14 +1,22 @@
 package com.pubsub.config;
 
+import com.salesforce.eventbus.protobuf.ErrorCode;
+import io.grpc.Status;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Centralized configuration for Salesforce Pub/Sub integration.
  *
@@ -30,6 +38,27 @@ public class PubSubConfiguration {
     @Valid
     private SchemaConfig schema = new SchemaConfig();
 
+    @Valid
+    private PublishConfig publish = new PublishConfig();
+
+    @Valid
+    private AuthConfig auth = new AuthConfig();
+
+    @Valid
+    private CheckpointConfig checkpoint = new CheckpointConfig();
+
+    @Valid
+    private ManagedSubscribeConfig managedSubscribe = new ManagedSubscribeConfig();
+
+    @Valid
+    private DeadLetterConfig deadLetter = new DeadLetterConfig();
+
+    @Valid
+    private ReconnectConfig reconnect = new ReconnectConfig();
+
+    @Valid
+    private RetryConfig retry = new RetryConfig();
+
     /**
      * gRPC channel configuration for Salesforce Pub/Sub API.
      */
@@ -59,6 +88,128 @@ public class PubSubConfiguration {
          */
         @Min(1)
         private long channelIdleTimeoutMinutes = 30;
+
+        /**
+         * Number of channels, each with its own HTTP/2 connection. Unary calls are spread over them
+         * round-robin and each stream goes to the channel carrying the fewest streams.
+         */
+        @Min(1)
+        private int channelPoolSize = 2;
+
+        /**
+         * Streams a channel carries at most, normally the server's HTTP/2 max concurrent streams. Opening a
+         * stream when every channel is at the limit fails with {@code RESOURCE_EXHAUSTED}, which subscriptions
+         * retry with backoff; raise the pool size instead.
+         */
+        @Min(1)
+        private int maxStreamsPerChannel = 100;
+
+        /**
+         * Whether open streams and calls are exported per channel as {@code pubsub.grpc.channel.streams}
+         * and {@code pubsub.grpc.channel.calls}.
+         */
+        private boolean channelMetricsEnabled = true;
+
+        /**
+         * Whether channels use the native epoll transport where it is available (Linux), instead of NIO.
+         */
+        private boolean epollEnabled = true;
+
+        /**
+         * Event-loop threads shared by all channels; 0 uses Netty's default of twice the number of processors.
+         */
+        @Min(0)
+        private int eventLoopThreads = 0;
+
+        /**
+         * Interval in seconds without reads after which a keepalive ping is sent, so that idle streams are
+         * not silently dropped by proxies and load balancers. gRPC servers reject pings more frequent than
+         * every 5 minutes by default and close the connection with {@code too_many_pings}, so keep this at 300
+         * or more unless the server permits shorter intervals.
+         */
+        @Min(1)
+        private long keepAliveTimeSeconds = 300;
+
+        /**
+         * Seconds to wait for a keepalive ping to be acknowledged before the connection is considered dead.
+         */
+        @Min(1)
+        private long keepAliveTimeoutSeconds = 20;
+
+        /**
+         * Whether keepalive pings are also sent while a channel has no calls open.
+         */
+        private boolean keepAliveWithoutCalls = false;
+
+        /**
+         * Initial HTTP/2 flow-control window in bytes, per stream and per connection. The gRPC default of
+         * 64 KiB stalls large fetch responses until the window has been updated.
+         */
+        @Min(65535)
+        private int initialFlowControlWindowBytes = 1024 * 1024;
+
+        /**
+         * Whether the flow-control window then grows with the measured bandwidth-delay product. Otherwise it
+         * stays at {@code initial-flow-control-window-bytes}.
+         */
+        private boolean flowControlAutoTuning = true;
+
+        /**
+         * Largest response message accepted, in bytes.
+         */
+        @Min(1)
+        private int maxInboundMessageBytes = 16 * 1024 * 1024;
+
+        /**
+         * Deadline in milliseconds of each GetTopic call.
+         */
+        @Min(1)
+        private long getTopicDeadlineMs = 10000;
+
+        /**
+         * Deadline in milliseconds of each GetSchema call.
+         */
+        @Min(1)
+        private long getSchemaDeadlineMs = 10000;
+
+        /**
+         * Deadline in milliseconds of each unary Publish call.
+         */
+        @Min(1)
+        private long publishDeadlineMs = 30000;
+
+        /**
+         * Whether GetTopic and GetSchema, which are idempotent, are hedged: a further attempt is sent every
+         * {@code hedging-delay-ms} until one responds, and the first response wins.
+         */
+        private boolean hedgingEnabled = false;
+
+        /**
+         * Attempts a hedged call may send at most, including the first. gRPC caps this at 5.
+         */
+        @Min(2)
+        @Max(5)
+        private int hedgingMaxAttempts = 2;
+
+        /**
+         * Milliseconds without a response after which a hedged call sends its next attempt, normally around
+         * the p95 latency of the lookups.
+         */
+        @Min(1)
+        private long hedgingDelayMs = 500;
+
+        /**
+         * Whether latency, status, message counts and serialized bytes of every call are exported per method
+         * as {@code pubsub.grpc.client.*}.
+         */
+        private boolean callMetricsEnabled = true;
+
+        /**
+         * Duration in milliseconds above which a unary call is logged with the server's {@code rpc_id}.
+         * 0 disables the log. Only applies with call metrics enabled.
+         */
+        @Min(0)
+        private long slowCallThresholdMs = 2000;
     }
 
     /**
@@ -67,16 +218,116 @@ public class PubSubConfiguration {
     @Data
     public static class EventProcessingConfig {
         /**
-         * Number of threads in the event processing pool.
+         * Threads that run observers: a fixed pool of platform threads, or one virtual thread per callback.
+         */
+        @NotNull
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+        /**
+         * Number of threads in the event processing pool that runs observers, in PLATFORM mode.
          */
         @Min(1)
         private int threadPoolSize = 10;
 
         /**
-         * Number of events to fetch per batch from Salesforce.
+         * Maximum number of observer callbacks running at the same time per topic.
+         */
+        @Min(1)
+        private int maxConcurrentPerTopic = 256;
+
+        /**
+         * Maximum number of events requested by a single FetchRequest.
+         */
+        @Min(1)
+        @Max(100)
+        private int batchSize = 100;
+
+        /**
+         * Events a subscription may have requested or buffered before it stops asking the server for more.
+         * Also sizes the preallocated ring buffer of received events.
          */
         @Min(1)
-        private int batchSize = 5;
+        private int bufferHighWatermark = 100;
+
+        /**
+         * When requested plus buffered events fall to this level, the subscription requests enough
+         * events to return to the high watermark.
+         */
+        @Min(0)
+        private int bufferLowWatermark = 25;
+
+        /**
+         * Threads per subscription that take events from the ring buffer, decode them and hand them to the dispatch lanes.
+         */
+        @Min(1)
+        private int consumerThreads = 1;
+
+        /**
+         * How consumer threads wait for the ring buffer of received events: BLOCKING parks on a condition,
+         * SLEEPING spins, yields and then parks briefly, YIELDING spins then yields, BUSY_SPIN never gives
+         * up the CPU and needs a free core per consumer thread. Lower latency costs more CPU while idle.
+         */
+        @NotNull
+        private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+
+        /**
+         * Number of ordered dispatch lanes. Events with the same partition key always use the same lane
+         * and are delivered to observers one after another; different lanes run in parallel.
+         */
+        @Min(1)
+        private int dispatchLanes = 10;
+
+        /**
+         * What events are partitioned by: the topic, or a field of the event record.
+         */
+        @NotNull
+        private PartitionKey partitionKey = PartitionKey.TOPIC;
+
+        /**
+         * Record field used when partitioning by field. Nested fields are separated by dots,
+         * e.g. {@code ChangeEventHeader.recordIds} for change data capture events.
+         */
+        private String partitionField;
+
+        /**
+         * Maximum number of events delivered to a batch observer in one call.
+         */
+        @Min(1)
+        private int batchObserverMaxSize = 100;
+
+        /**
+         * Maximum time in milliseconds an event waits for its batch to fill before the batch is delivered.
+         */
+        @Min(0)
+        private long batchObserverMaxWaitMs = 50;
+
+        /**
+         * Callbacks of one observer running at the same time for one topic. Each observer has its own limit,
+         * so a slow observer cannot take the threads of the others.
+         */
+        @Min(1)
+        private int observerMaxConcurrent = 8;
+
+        /**
+         * Events waiting for or running in one observer for one topic. Further events are rejected for that
+         * observer only and counted in {@code pubsub.observer.rejections}.
+         */
+        @Min(1)
+        private int observerMaxQueued = 1000;
+
+        /**
+         * Time in milliseconds an observer may take for one event, counted from when the event's turn comes.
+         * A slower event is logged and counted in {@code pubsub.observer.timeouts}; the events after it with
+         * the same key still wait for it, so that they are never processed out of order.
+         */
+        @Min(1)
+        private long observerTimeoutMs = 30000;
+
+        /**
+         * Overrides of the observer limits, keyed by the observer's simple class name,
+         * e.g. {@code pubsub.event-processing.observers[LoginEventStreamObserver].timeout-ms=5000}.
+         */
+        private Map<String, @Valid ObserverLimits> observers = new HashMap<>();
 
         /**
          * Interval in milliseconds for channel health checks.
@@ -85,6 +336,21 @@ public class PubSubConfiguration {
         private long channelHealthCheckIntervalMs = 3600000; // 1 hour
     }
 
+    /**
+     * Limits of one observer. Unset values fall back to the {@code observer-*} settings of event processing.
+     */
+    @Data
+    public static class ObserverLimits {
+        @Min(1)
+        private Integer maxConcurrent;
+
+        @Min(1)
+        private Integer maxQueued;
+
+        @Min(1)
+        private Long timeoutMs;
+    }
+
     /**
      * Schema caching configuration.
      */
@@ -101,5 +367,326 @@ public class PubSubConfiguration {
          */
         @Min(60000)
         private long cacheCleanupIntervalMs = 300000; // 5 minutes
+
+        /**
+         * Age in minutes after which a cached topic is reloaded in the background while the
+         * stale entry keeps being served. Should be lower than {@code cacheTtlMinutes}.
+         */
+        @Min(1)
+        private long cacheRefreshMinutes = 45;
+
+        /**
+         * Maximum number of topics, and separately of schemas, kept in the cache.
+         */
+        @Min(1)
+        private long cacheMaxEntries = 1000;
+    }
+
+    /**
+     * Event publishing configuration.
+     */
+    @Data
+    public static class PublishConfig {
+        /**
+         * Transport used by {@code Publish}: unary {@code Publish} RPC calls or a long-lived
+         * {@code PublishStream} with several requests in flight.
+         */
+        @NotNull
+        private PublishMode mode = PublishMode.UNARY;
+
+        /**
+         * Maximum number of PublishRequests awaiting a response on one publish stream.
+         */
+        @Min(1)
+        private int streamMaxInFlight = 16;
+
+        /**
+         * Maximum time in milliseconds to wait for a free in-flight slot on the publish stream.
+         */
+        @Min(1)
+        private long streamAcquireTimeoutMs = 30000;
+
+        /**
+         * Maximum number of events the publish accumulator puts into one PublishRequest.
+         */
+        @Min(1)
+        private int batchMaxEvents = 100;
+
+        /**
+         * Maximum serialized size in bytes of the events in one accumulated PublishRequest.
+         */
+        @Min(1024)
+        private int batchMaxBytes = 1048576; // 1 MB
+
+        /**
+         * Time in milliseconds a partially filled batch waits for more events before it is sent.
+         */
+        @Min(0)
+        private long batchLingerMs = 10;
+
+        /**
+         * Threads that make blocking unary Publish calls, for single events and for accumulated batches:
+         * a fixed pool of platform threads, or one virtual thread per call.
+         */
+        @NotNull
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+        /**
+         * Number of threads sending unary Publish calls in PLATFORM mode, for single events and, in a
+         * separate pool, for accumulated batches.
+         */
+        @Min(1)
+        private int batchSenderThreads = 4;
+
+        /**
+         * Maximum number of unary Publish calls in flight per topic.
+         */
+        @Min(1)
+        private int maxConcurrentPerTopic = 16;
+    }
+
+    /**
+     * Session credential caching configuration.
+     */
+    @Data
+    public static class AuthConfig {
+        /**
+         * Lifetime in minutes assumed for a Salesforce session, measured from its issue time.
+         * Should not exceed the session timeout configured in the org.
+         */
+        @Min(1)
+        private long sessionTtlMinutes = 90;
+
+        /**
+         * How long in minutes before the assumed expiry the session is refreshed in the background.
+         */
+        @Min(0)
+        private long refreshBeforeExpiryMinutes = 10;
+
+        /**
+         * Delay in seconds before a failed background refresh is attempted again.
+         */
+        @Min(1)
+        private long refreshRetrySeconds = 30;
+
+        /**
+         * Minimum age in seconds of the current session before an UNAUTHENTICATED response triggers a refresh,
+         * so that a burst of rejected calls leads to a single token exchange.
+         */
+        @Min(0)
+        private long minRefreshIntervalSeconds = 10;
+    }
+
+    /**
+     * Replay ID checkpoint configuration.
+     */
+    @Data
+    public static class CheckpointConfig {
+        /**
+         * Backend storing the last processed replay ID per topic.
+         */
+        @NotNull
+        private CheckpointStoreType store = CheckpointStoreType.FILE;
+
+        /**
+         * Append-only checkpoint log used by the file store. Created on the first flush.
+         */
+        @NotBlank
+        private String file = "checkpoints/replay-ids.log";
+
+        /**
+         * Interval in milliseconds at which new checkpoints are written to the file in one batch.
+         */
+        @Min(10)
+        private long flushIntervalMs = 1000;
+
+        /**
+         * Whether each flushed batch is forced to disk. One fsync per batch, never per event.
+         */
+        private boolean fsync = true;
+
+        /**
+         * Number of appended records after which the log is rewritten with only the latest checkpoint per topic.
+         */
+        @Min(1)
+        private long compactAfterRecords = 10000;
+    }
+
+    /**
+     * Managed subscription configuration.
+     */
+    @Data
+    public static class ManagedSubscribeConfig {
+        /**
+         * Interval in milliseconds at which the latest processed replay ID is committed, if it changed.
+         */
+        @Min(100)
+        private long commitIntervalMs = 5000;
+
+        /**
+         * Number of processed events after which a commit is sent without waiting for the interval.
+         */
+        @Min(1)
+        private int commitBatchSize = 100;
+    }
+
+    /**
+     * Dead-letter spool for events that could not be decoded or processed.
+     */
+    @Data
+    public static class DeadLetterConfig {
+        /**
+         * Whether failed events are written to the spool. When disabled they are only logged.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Directory holding the spool's segment files. Created on the first failed event.
+         */
+        @NotBlank
+        private String directory = "dead-letters";
+
+        /**
+         * Size in bytes at which the active segment is closed and a new one started.
+         */
+        @Min(1024)
+        private long segmentMaxBytes = 16777216; // 16 MB
+
+        /**
+         * Whether each record is forced to disk when appended.
+         */
+        private boolean fsync = false;
+
+        /**
+         * Default rate, in events per second, at which a replay redelivers spooled events to observers.
+         */
+        @Min(1)
+        private int replayRatePerSecond = 100;
+    }
+
+    /**
+     * Reconnection of failed subscription streams.
+     */
+    @Data
+    public static class ReconnectConfig {
+        /**
+         * Backoff in milliseconds before the first reconnect. It doubles with every consecutive failure,
+         * and each delay is jittered between half and all of the backoff.
+         */
+        @Min(1)
+        private long initialBackoffMs = 1000;
+
+        /**
+         * Upper bound in milliseconds of the backoff.
+         */
+        @Min(1)
+        private long maxBackoffMs = 60000;
+
+        /**
+         * Consecutive failures after which the circuit opens and reconnects are only attempted every
+         * {@code circuitOpenMs}.
+         */
+        @Min(1)
+        private int circuitBreakerThreshold = 10;
+
+        /**
+         * Time in milliseconds between reconnect attempts while the circuit is open.
+         */
+        @Min(1000)
+        private long circuitOpenMs = 300000; // 5 minutes
+
+        /**
+         * gRPC status codes that stop a subscription instead of reconnecting it.
+         */
+        @NotNull
+        private Set<Status.Code> fatalStatusCodes = EnumSet.of(
+                Status.Code.INVALID_ARGUMENT, Status.Code.NOT_FOUND, Status.Code.PERMISSION_DENIED, Status.Code.UNIMPLEMENTED);
+    }
+
+    /**
+     * Retries of failed unary calls and of the failed events of a publish batch.
+     */
+    @Data
+    public static class RetryConfig {
+        /**
+         * Attempts per call at most, including the first.
+         */
+        @Min(1)
+        private int maxAttempts = 3;
+
+        /**
+         * Backoff in milliseconds before the first retry. It doubles with every further retry, and each delay
+         * is jittered between half and all of the backoff.
+         */
+        @Min(1)
+        private long initialBackoffMs = 500;
+
+        /**
+         * Upper bound in milliseconds of the backoff.
+         */
+        @Min(1)
+        private long maxBackoffMs = 10000;
+
+        /**
+         * Retries allowed as a percentage of the calls made within {@code budget-window-seconds}, across all
+         * operations, so that retries cannot multiply the load on a struggling server.
+         */
+        @Min(0)
+        @Max(100)
+        private int budgetPercent = 10;
+
+        /**
+         * Retries per second allowed whatever the traffic, so that a quiet client can still retry.
+         */
+        @Min(0)
+        private int budgetMinRetriesPerSecond = 10;
+
+        /**
+         * Window in seconds over which calls and retries are counted for the budget.
+         */
+        @Min(1)
+        private int budgetWindowSeconds = 10;
+
+        /**
+         * gRPC status codes of failures that are retried; others fail the call at once.
+         */
+        @NotNull
+        private Set<Status.Code> retryableStatusCodes = EnumSet.of(
+                Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED, Status.Code.RESOURCE_EXHAUSTED,
+                Status.Code.ABORTED, Status.Code.INTERNAL);
+
+        /**
+         * Error codes of {@code PublishResult}s whose events are published again. {@code PUBLISH} is reported
+         * for failures of the event bus; {@code UNKNOWN} and {@code COMMIT} are treated as final.
+         */
+        @NotNull
+        private Set<ErrorCode> retryableErrorCodes = EnumSet.of(ErrorCode.PUBLISH);
+    }
+
+    public enum PublishMode {
+        UNARY,
+        STREAM
+    }
+
+    public enum ExecutionMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    public enum WaitStrategy {
+        BLOCKING,
+        SLEEPING,
+        YIELDING,
+        BUSY_SPIN
+    }
+
+    public enum PartitionKey {
+        TOPIC,
+        FIELD
+    }
+
+    public enum CheckpointStoreType {
+        FILE,
+        MEMORY
     }
 }
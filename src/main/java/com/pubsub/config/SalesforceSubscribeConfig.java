@@ -1,12 +1,21 @@
 package com.pubsub.config;
 
+import com.salesforce.eventbus.protobuf.ReplayPreset;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
+@Validated
 @Configuration
 @ConfigurationProperties(prefix = "salesforce-subscribe-config")
 public class SalesforceSubscribeConfig {
@@ -15,4 +24,49 @@ public class SalesforceSubscribeConfig {
     private String clientSecret;
     private Boolean eventListeningOn;
     private List<String> activeEvents;
+
+    /**
+     * Topics subscribed to by the {@code SubscriptionManager}, each with its own observers. An observer may
+     * be named only once per topic.
+     */
+    @Valid
+    private List<TopicSubscription> subscriptions = new ArrayList<>();
+
+    /**
+     * One subscription started from configuration.
+     */
+    @Data
+    public static class TopicSubscription {
+        /**
+         * Topic name, e.g. {@code /data/AccountChangeEvent} or {@code /event/Order__e}.
+         */
+        @NotBlank
+        private String topic;
+
+        /**
+         * Events requested per FetchRequest. Defaults to {@code pubsub.event-processing.batch-size}.
+         */
+        @Min(1)
+        @Max(100)
+        private Integer batchSize;
+
+        /**
+         * Where the subscription starts when there is no checkpoint for the topic.
+         */
+        @NotNull
+        private ReplayPreset replayPreset = ReplayPreset.LATEST;
+
+        /**
+         * Bean names of the {@code IProcessEventObserver} and {@code IProcessBatchObserver} beans that receive
+         * the topic's events.
+         */
+        private List<String> observers = new ArrayList<>();
+
+        /**
+         * Observer callbacks running at once for the topic. Defaults to
+         * {@code pubsub.event-processing.max-concurrent-per-topic}.
+         */
+        @Min(1)
+        private Integer concurrency;
+    }
 }
@@ -0,0 +1,45 @@
+package com.pubsub.deadletter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint {@code /actuator/deadletters}: GET shows the spool and replay progress, POST starts a
+ * replay, optionally with a {@code ratePerSecond}.
+ *
+ * The endpoint does no authentication itself and is not in the default web exposure. Expose it only behind
+ * Spring Security or on a management port that is not publicly reachable.
+ */
+@Component
+@Endpoint(id = "deadletters")
+@RequiredArgsConstructor
+public class DeadLetterEndpoint {
+
+    private final DeadLetterSpool spool;
+    private final DeadLetterReplayer replayer;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("segments", spool.segments().size());
+        status.put("bytes", spool.sizeBytes());
+        status.put("replayRunning", replayer.isRunning());
+        status.put("replayed", replayer.getReplayed());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Integer ratePerSecond) {
+        boolean started = replayer.replay(ratePerSecond);
+        Map<String, Object> status = status();
+        status.put("started", started);
+        return status;
+    }
+}
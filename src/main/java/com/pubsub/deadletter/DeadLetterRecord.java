@@ -0,0 +1,48 @@
+package com.pubsub.deadletter;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.models.ProcessedEvent;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+
+/**
+ * An event that could not be processed, as stored in the dead-letter spool.
+ *
+ * @param failedAt epoch milliseconds of the failure
+ * @param schemaId ID of the schema the payload was written with
+ * @param payload  Avro-encoded payload as received from the Pub/Sub API
+ * @param observer simple class name of the observer that failed, or {@code null} if the event could not be
+ *                 decoded and is redelivered to every observer of its topic
+ * @param error    description of the failure
+ */
+public record DeadLetterRecord(long failedAt, String topic, String schemaId, ByteString replayId,
+                               ByteString payload, String observer, String error) {
+
+    public static DeadLetterRecord of(ConsumerEvent event, String topic, String observer, String error) {
+        return new DeadLetterRecord(System.currentTimeMillis(), topic, event.getEvent().getSchemaId(),
+                event.getReplayId(), event.getEvent().getPayload(), observer, error);
+    }
+
+    public static DeadLetterRecord of(ProcessedEvent event, String observer, String error) {
+        return new DeadLetterRecord(System.currentTimeMillis(), event.getTopic(), orEmpty(event.getSchemaId()),
+                orEmpty(event.getReplayId()), orEmpty(event.getPayloadBytes()), observer, error);
+    }
+
+    /**
+     * @return the event in the form it was received in, for decoding it again
+     */
+    public ConsumerEvent toConsumerEvent() {
+        return ConsumerEvent.newBuilder()
+                .setEvent(ProducerEvent.newBuilder().setSchemaId(schemaId).setPayload(payload))
+                .setReplayId(replayId)
+                .build();
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static ByteString orEmpty(ByteString value) {
+        return value == null ? ByteString.EMPTY : value;
+    }
+}
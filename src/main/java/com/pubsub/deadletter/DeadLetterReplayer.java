@@ -0,0 +1,124 @@
+package com.pubsub.deadletter;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.services.Subscribe;
+import com.pubsub.utils.SalesforceCredentialManager;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redelivers spooled events to observers at a limited rate.
+ *
+ * A replay seals the spool and works through the sealed segments oldest first, so events failing again
+ * are written to a new segment rather than the one being read. A segment is deleted once all of its events
+ * have been processed; if the replay stops early, the segment is kept and replayed again next time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterReplayer {
+
+    private static final String LOG_STARTED = "Replaying {} dead-letter segments at {} events per second";
+    private static final String LOG_SEGMENT_REPLAYED = "Replayed {} dead-lettered events from {}";
+    private static final String LOG_STOPPED = "Dead-letter replay stopped before finishing {}";
+    private static final String ERROR_REPLAY = "Dead-letter replay failed";
+
+    private final DeadLetterSpool spool;
+    private final Subscribe subscribe;
+    private final SalesforceCredentialManager credentialManager;
+    private final PubSubConfiguration config;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong replayed = new AtomicLong();
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dead-letter-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Starts replaying all spooled events in the background.
+     *
+     * @param ratePerSecond maximum events redelivered per second, or {@code null} for
+     *                      {@code pubsub.dead-letter.replay-rate-per-second}
+     * @return whether a replay was started; only one runs at a time
+     */
+    public boolean replay(Integer ratePerSecond) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        int rate = ratePerSecond != null && ratePerSecond > 0 ? ratePerSecond : config.getDeadLetter().getReplayRatePerSecond();
+        try {
+            List<Path> segments = spool.sealSegments();
+            replayed.set(0);
+            log.info(LOG_STARTED, segments.size(), rate);
+            replayExecutor.execute(() -> {
+                try {
+                    replaySegments(segments, rate);
+                } catch (Exception e) {
+                    log.error(ERROR_REPLAY, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return events redelivered by the current or last replay
+     */
+    public long getReplayed() {
+        return replayed.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    private void replaySegments(List<Path> segments, int ratePerSecond) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long next = System.nanoTime();
+        for (Path segment : segments) {
+            List<DeadLetterRecord> records = spool.read(segment);
+            List<CompletableFuture<Void>> redelivered = new ArrayList<>(records.size());
+            for (DeadLetterRecord record : records) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    log.warn(LOG_STOPPED, segment);
+                    return;
+                }
+                next = Math.max(next, System.nanoTime()) + interval;
+                redelivered.add(subscribe.redeliver(record, credentialManager.getCredentials()));
+                replayed.incrementAndGet();
+            }
+            CompletableFuture.allOf(redelivered.toArray(CompletableFuture[]::new)).join();
+            spool.delete(segment);
+            log.info(LOG_SEGMENT_REPLAYED, records.size(), segment);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.pubsub.deadletter;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.DeadLetterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores events that could not be processed in segmented local files, so that they can be replayed later
+ * instead of being dropped or retried in the pipeline.
+ *
+ * Records are appended to the active segment as lines of tab-separated fields, with binary and free-text
+ * fields Base64-encoded. A segment is closed once it reaches {@code pubsub.dead-letter.segment-max-bytes},
+ * or when a replay seals it; sealed segments are only read and deleted. A record torn by a crash is
+ * ignored when its segment is read.
+ */
+@Slf4j
+@Component
+public class DeadLetterSpool {
+
+    private static final String LOG_APPENDED = "Dead-lettered event {} of topic {}: {}";
+    private static final String LOG_SKIPPED_RECORD = "Skipping malformed dead-letter record in {}";
+    private static final String ERROR_APPEND = "Failed to dead-letter event of topic {}";
+    private static final String ERROR_READ = "Failed to read dead-letter segment ";
+    private static final String ERROR_LIST = "Failed to list dead-letter segments in ";
+    private static final String ERROR_DELETE = "Failed to delete dead-letter segment ";
+    private static final String ERROR_CLOSE = "Failed to close dead-letter segment ";
+    private static final String METRIC_RECORDS = "pubsub.deadletter.records";
+    private static final String TAG_TOPIC = "topic";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SEPARATOR = "\t";
+    private static final char RECORD_END = '\n';
+    private static final int FIELDS = 7;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final boolean fsync;
+    private final MeterRegistry meterRegistry;
+
+    // Guarded by this
+    private FileChannel active;
+    private Path activePath;
+    private long nextSegment;
+
+    public DeadLetterSpool(PubSubConfiguration config, MeterRegistry meterRegistry) {
+        PubSubConfiguration.DeadLetterConfig deadLetter = config.getDeadLetter();
+        this.enabled = deadLetter.isEnabled();
+        this.directory = Path.of(deadLetter.getDirectory());
+        this.segmentMaxBytes = deadLetter.getSegmentMaxBytes();
+        this.fsync = deadLetter.isFsync();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Appends the record to the active segment. Failures to write are logged, never thrown, so that the
+     * event pipeline is not affected.
+     */
+    public void append(DeadLetterRecord record) {
+        log.warn(LOG_APPENDED, toBase64(record.replayId()), record.topic(), record.error());
+        if (!enabled) {
+            return;
+        }
+        meterRegistry.counter(METRIC_RECORDS, TAG_TOPIC, record.topic()).increment();
+        ByteBuffer line = StandardCharsets.UTF_8.encode(format(record));
+        synchronized (this) {
+            try {
+                FileChannel channel = activeSegment();
+                while (line.hasRemaining()) {
+                    channel.write(line);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                if (channel.size() >= segmentMaxBytes) {
+                    closeActive();
+                }
+            } catch (IOException e) {
+                log.error(ERROR_APPEND, record.topic(), e);
+            }
+        }
+    }
+
+    /**
+     * Closes the active segment, so that new records go to a new one.
+     *
+     * @return all segments, oldest first; none of them is written to any more
+     */
+    public synchronized List<Path> sealSegments() {
+        closeActive();
+        return segments();
+    }
+
+    /**
+     * @return all segments, oldest first, including the active one
+     */
+    public List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(DeadLetterSpool::isSegment).sorted().toList();
+        } catch (IOException e) {
+            throw new DeadLetterException(ERROR_LIST + directory, e);
+        }
+    }
+
+    /**
+     * @return total size in bytes of all segments
+     */
+    public long sizeBytes() {
+        long size = 0;
+        for (Path segment : segments()) {
+            try {
+                size += Files.size(segment);
+            } catch (IOException e) {
+                // Deleted by a concurrent replay
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the complete records of a segment
+     */
+    public List<DeadLetterRecord> read(Path segment) {
+        String content;
+        try {
+            content = Files.readString(segment, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new DeadLetterException(ERROR_READ + segment, e);
+        }
+        List<DeadLetterRecord> records = new ArrayList<>();
+        // Anything after the last record end was torn by a crash
+        int end = content.lastIndexOf(RECORD_END);
+        for (String line : content.substring(0, end + 1).split(String.valueOf(RECORD_END))) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            try {
+                records.add(parse(line));
+            } catch (IllegalArgumentException e) {
+                log.warn(LOG_SKIPPED_RECORD, segment);
+            }
+        }
+        return records;
+    }
+
+    public void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new DeadLetterException(ERROR_DELETE + segment, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeActive();
+    }
+
+    private FileChannel activeSegment() throws IOException {
+        if (active == null) {
+            Files.createDirectories(directory);
+            if (nextSegment == 0) {
+                nextSegment = segments().stream().mapToLong(DeadLetterSpool::segmentNumber).max().orElse(0) + 1;
+            }
+            activePath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+            active = FileChannel.open(activePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return active;
+    }
+
+    private void closeActive() {
+        if (active == null) {
+            return;
+        }
+        try {
+            active.close();
+        } catch (IOException e) {
+            log.warn(ERROR_CLOSE + activePath, e);
+        }
+        active = null;
+        activePath = null;
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String format(DeadLetterRecord record) {
+        return String.join(SEPARATOR,
+                Long.toString(record.failedAt()),
+                record.topic(),
+                record.schemaId(),
+                toBase64(record.replayId()),
+                toBase64(record.payload()),
+                record.observer() == null ? "" : record.observer(),
+                toBase64(ByteString.copyFromUtf8(record.error() == null ? "" : record.error()))) + RECORD_END;
+    }
+
+    private static DeadLetterRecord parse(String line) {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields but found " + fields.length);
+        }
+        return new DeadLetterRecord(
+                Long.parseLong(fields[0]),
+                fields[1],
+                fields[2],
+                fromBase64(fields[3]),
+                fromBase64(fields[4]),
+                fields[5].isEmpty() ? null : fields[5],
+                fromBase64(fields[6]).toStringUtf8());
+    }
+
+    private static String toBase64(ByteString value) {
+        return Base64.getEncoder().encodeToString(value.toByteArray());
+    }
+
+    private static ByteString fromBase64(String value) {
+        return ByteString.copyFrom(Base64.getDecoder().decode(value));
+    }
+}
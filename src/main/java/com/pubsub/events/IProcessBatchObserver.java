@@ -0,0 +1,18 @@
+package com.pubsub.events;
+
+import com.pubsub.exceptions.EventProcessingException;
+import com.pubsub.models.ProcessedEvent;
+
+import java.util.List;
+
+/**
+ * Observer that receives events in batches, for sinks that write in bulk.
+ *
+ * Events are coalesced across fetches until {@code pubsub.event-processing.batch-observer-max-size} events
+ * are collected or {@code pubsub.event-processing.batch-observer-max-wait-ms} has passed since the first one.
+ * Batches are delivered one at a time, and events with the same partition key appear in delivery order.
+ */
+@FunctionalInterface
+public interface IProcessBatchObserver {
+    void onBatch(String topic, List<ProcessedEvent> events) throws EventProcessingException;
+}
@@ -0,0 +1,124 @@
+package com.pubsub.events;
+
+import com.pubsub.deadletter.DeadLetterRecord;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.models.ProcessedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the events of one topic for one {@link IProcessBatchObserver}.
+ *
+ * A batch is delivered when it reaches the maximum size or when the maximum wait has passed since its first
+ * event. Deliveries are chained, so the observer never sees two batches at the same time. When the observer
+ * fails, every event of the batch is dead-lettered for it.
+ */
+@Slf4j
+final class ObserverBatcher {
+
+    private final String topic;
+    private final String name;
+    private final IProcessBatchObserver observer;
+    private final int maxSize;
+    private final long maxWaitMs;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Timer latency;
+    private final Counter failures;
+    private final DeadLetterSpool deadLetters;
+
+    // Guarded by this
+    private List<ProcessedEvent> events = new ArrayList<>();
+    private CompletableFuture<Void> batchDone = new CompletableFuture<>();
+    private ScheduledFuture<?> flushTask;
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    ObserverBatcher(String topic, String name, IProcessBatchObserver observer, int maxSize, long maxWaitMs,
+                    ScheduledExecutorService scheduler, Executor executor, Timer latency, Counter failures,
+                    DeadLetterSpool deadLetters) {
+        this.topic = topic;
+        this.name = name;
+        this.observer = observer;
+        this.maxSize = maxSize;
+        this.maxWaitMs = maxWaitMs;
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.latency = latency;
+        this.failures = failures;
+        this.deadLetters = deadLetters;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    IProcessBatchObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * @return completes once the batch containing the event has been delivered; observer failures are
+     * logged and do not fail the future
+     */
+    synchronized CompletableFuture<Void> add(ProcessedEvent event) {
+        events.add(event);
+        CompletableFuture<Void> done = batchDone;
+        if (events.size() >= maxSize) {
+            flush();
+        } else if (flushTask == null) {
+            flushTask = scheduler.schedule(() -> flushBatch(done), maxWaitMs, TimeUnit.MILLISECONDS);
+        }
+        return done;
+    }
+
+    synchronized void flush() {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        List<ProcessedEvent> batch = events;
+        CompletableFuture<Void> done = batchDone;
+        events = new ArrayList<>();
+        batchDone = new CompletableFuture<>();
+
+        tail = tail.exceptionally(t -> null).thenRunAsync(() -> deliver(batch), executor);
+        tail.whenComplete((result, failure) -> {
+            if (failure != null) {
+                log.error("Batch observer could not run for topic: {}", topic, failure);
+            }
+            done.complete(null);
+        });
+    }
+
+    // Flushes on timeout unless the batch was already sent because it filled up
+    private synchronized void flushBatch(CompletableFuture<Void> done) {
+        if (batchDone == done) {
+            flush();
+        }
+    }
+
+    private void deliver(List<ProcessedEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            observer.onBatch(topic, batch);
+        } catch (Exception e) {
+            failures.increment(batch.size());
+            log.error("Batch observer failed for topic: {} ({} events)", topic, batch.size(), e);
+            batch.forEach(event -> deadLetters.append(DeadLetterRecord.of(event, name, e.toString())));
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
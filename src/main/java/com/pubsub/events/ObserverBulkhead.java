@@ -0,0 +1,190 @@
+package com.pubsub.events;
+
+import com.pubsub.deadletter.DeadLetterRecord;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.models.ProcessedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Isolates one {@link IProcessEventObserver} of one topic from the other observers.
+ *
+ * The observer has its own ordered lanes, so a slow observer only holds back its own next events. At most
+ * {@code maxConcurrent} of its callbacks run at once; further callbacks wait in the bulkhead instead of
+ * occupying executor threads. Events beyond {@code maxQueued} are rejected and dead-lettered for this
+ * observer. An event the observer has not finished within {@code timeoutMs} is logged and counted as timed
+ * out, but its lane waits until the callback returns, so later events with the same key never overlap it; a
+ * hung observer therefore fills its queue and has further events rejected, while other observers go on.
+ */
+@Slf4j
+final class ObserverBulkhead {
+
+    private static final String LOG_REJECTED = "Observer {} has {} events queued for topic {}; rejecting event";
+    private static final String LOG_TIMED_OUT = "Observer {} did not process an event for topic {} within {} ms; its lane waits for it";
+    private static final String ERROR_OBSERVER = "Observer {} failed for topic: {}";
+    private static final String REASON_REJECTED = "Rejected: %d events already queued for the observer";
+
+    private final String topic;
+    private final String name;
+    private final IProcessEventObserver observer;
+    private final Executor executor;
+    private final Lane[] lanes;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long timeoutMs;
+    private final Counter timeouts;
+    private final Counter rejections;
+    private final Timer latency;
+    private final Counter failures;
+    private final DeadLetterSpool deadLetters;
+    // Events accepted and not yet done, whether waiting in a lane, for a slot or running
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Guarded by this
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int running;
+
+    ObserverBulkhead(String topic, String name, IProcessEventObserver observer, Executor executor, int lanes,
+                     int maxConcurrent, int maxQueued, long timeoutMs, Counter timeouts, Counter rejections,
+                     Timer latency, Counter failures, DeadLetterSpool deadLetters) {
+        this.topic = topic;
+        this.name = name;
+        this.observer = observer;
+        this.executor = executor;
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane();
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.timeoutMs = timeoutMs;
+        this.timeouts = timeouts;
+        this.rejections = rejections;
+        this.latency = latency;
+        this.failures = failures;
+        this.deadLetters = deadLetters;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    IProcessEventObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * @return events accepted and not yet done
+     */
+    int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Queues the event on the given lane of this observer.
+     *
+     * @return completes once the observer has processed, failed on or rejected the event
+     */
+    CompletableFuture<Void> submit(int lane, ProcessedEvent event) {
+        int alreadyQueued = queued.getAndIncrement();
+        if (alreadyQueued >= maxQueued) {
+            queued.decrementAndGet();
+            rejections.increment();
+            failures.increment();
+            log.warn(LOG_REJECTED, name, alreadyQueued, topic);
+            deadLetters.append(DeadLetterRecord.of(event, name, String.format(REASON_REJECTED, alreadyQueued)));
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done = lanes[lane].append(() -> run(event));
+        done.whenComplete((result, failure) -> queued.decrementAndGet());
+        return done;
+    }
+
+    private CompletableFuture<Void> run(ProcessedEvent event) {
+        CompletableFuture<Void> processed = new CompletableFuture<>();
+        acquire(() -> {
+            long start = System.nanoTime();
+            try {
+                observer.onEvent(topic, event);
+            } catch (Exception e) {
+                failures.increment();
+                log.error(ERROR_OBSERVER, name, topic, e);
+                deadLetters.append(DeadLetterRecord.of(event, name, e.toString()));
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                processed.complete(null);
+                release();
+            }
+        }, processed);
+        // Only reports the timeout; the lane still waits for the callback
+        processed.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionally(failure -> {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof TimeoutException) {
+                timeouts.increment();
+                log.warn(LOG_TIMED_OUT, name, topic, timeoutMs);
+            }
+            return null;
+        });
+        return processed.handle((result, failure) -> {
+            if (failure != null) {
+                // The executor rejected the callback
+                failures.increment();
+                log.error(ERROR_OBSERVER, name, topic, failure);
+                deadLetters.append(DeadLetterRecord.of(event, name, failure.toString()));
+            }
+            return null;
+        });
+    }
+
+    private synchronized void acquire(Runnable callback, CompletableFuture<Void> processed) {
+        if (running < maxConcurrent) {
+            running++;
+            execute(callback, processed);
+        } else {
+            waiting.add(() -> execute(callback, processed));
+        }
+    }
+
+    private synchronized void release() {
+        Runnable next = waiting.poll();
+        if (next == null) {
+            running--;
+        } else {
+            // The slot passes straight to the next waiting callback
+            next.run();
+        }
+    }
+
+    private void execute(Runnable callback, CompletableFuture<Void> processed) {
+        try {
+            executor.execute(callback);
+        } catch (RejectedExecutionException e) {
+            processed.completeExceptionally(e);
+            release();
+        }
+    }
+
+    /**
+     * Serial chain of dispatches. Only the tail is referenced, so finished dispatches can be collected.
+     */
+    private static final class Lane {
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+        synchronized CompletableFuture<Void> append(Supplier<CompletableFuture<Void>> dispatch) {
+            tail = tail.exceptionally(t -> null).thenCompose(ignored -> dispatch.get());
+            return tail;
+        }
+    }
+}
@@ -1,70 +1,241 @@
 package com.pubsub.events;
 
 
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.metrics.PubSubMetrics;
 import com.pubsub.models.ProcessedEvent;
+import com.pubsub.utils.ExecutorFactory;
+import com.pubsub.utils.TopicConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 import jakarta.annotation.PreDestroy;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
-
+/**
+ * Delivers events to the observers registered for their topic.
+ *
+ * Events are partitioned by a key, either the topic or a field of the event record, and each key maps to
+ * one of a fixed number of lanes. Every observer has its own lanes in an {@link ObserverBulkhead}: within a
+ * lane, an event is only handed to the observer once it has processed the previous one, so events with the
+ * same key are seen in delivery order, while a slow observer never holds back the others. Bulkheads also
+ * bound each observer's concurrency and queue and give up on events it does not process in time.
+ * Lanes run in parallel on the event processing executor, platform or virtual threads depending on
+ * {@code pubsub.event-processing.execution-mode}, and never block the caller. At most
+ * {@code pubsub.event-processing.max-concurrent-per-topic} observer callbacks run at once per topic.
+ *
+ * Batch observers receive events through an {@link ObserverBatcher}. Events join a batch in the order they
+ * are notified, so batches can fill up across lanes and fetches.
+ *
+ * Events an observer fails on are written to the {@link DeadLetterSpool} for that observer, and can later be
+ * redelivered to it alone with {@link #notifyObserver}.
+ */
 @Component
 @Slf4j
 public class ProcessEventManager {
-    private final Map<String, List<IProcessEventObserver>> observers = new ConcurrentHashMap<>();
-    private final ExecutorService executor = Executors.newFixedThreadPool(10); // Configurable thread pool size
+    private static final String ERROR_DUPLICATE_OBSERVER = "Observer %s is already registered for topic %s";
+    private static final String FIELD_SEPARATOR = "\\.";
+    private static final String METRIC_OBSERVER_TIMEOUTS = "pubsub.observer.timeouts";
+    private static final String METRIC_OBSERVER_REJECTIONS = "pubsub.observer.rejections";
+    private static final String METRIC_OBSERVER_LATENCY = "pubsub.observer.latency";
+    private static final String METRIC_OBSERVER_QUEUED = "pubsub.observer.queued";
+    private static final Duration LATENCY_MIN_EXPECTED = Duration.ofNanos(100_000);
+    private static final Duration LATENCY_MAX_EXPECTED = Duration.ofSeconds(60);
+    private static final String TAG_TOPIC = "topic";
+    private static final String TAG_OBSERVER = "observer";
+
+    private final Map<String, List<ObserverBulkhead>> observers = new ConcurrentHashMap<>();
+    private final Map<String, List<ObserverBatcher>> batchObservers = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService batchScheduler;
+    private final TopicConcurrencyLimiter concurrencyLimiter;
+    private final PubSubConfiguration.EventProcessingConfig eventProcessing;
+    private final PubSubMetrics metrics;
+    private final DeadLetterSpool deadLetters;
+    private final PubSubConfiguration.PartitionKey partitionKey;
+    private final String[] partitionField;
+    private final int batchMaxSize;
+    private final long batchMaxWaitMs;
+
+    public ProcessEventManager(PubSubConfiguration config, PubSubMetrics metrics, DeadLetterSpool deadLetters) {
+        this.eventProcessing = config.getEventProcessing();
+        this.metrics = metrics;
+        this.deadLetters = deadLetters;
+        this.executor = ExecutorFactory.newExecutor(eventProcessing.getExecutionMode(), eventProcessing.getThreadPoolSize(), "event-dispatch-");
+        this.concurrencyLimiter = new TopicConcurrencyLimiter(eventProcessing.getMaxConcurrentPerTopic());
+        this.partitionKey = eventProcessing.getPartitionKey();
+        String field = eventProcessing.getPartitionField();
+        this.partitionField = field == null || field.isBlank() ? new String[0] : field.split(FIELD_SEPARATOR);
+        if (partitionKey == PubSubConfiguration.PartitionKey.FIELD && partitionField.length == 0) {
+            throw new IllegalArgumentException("pubsub.event-processing.partition-field is required when partitioning by FIELD");
+        }
+        this.batchMaxSize = eventProcessing.getBatchObserverMaxSize();
+        this.batchMaxWaitMs = eventProcessing.getBatchObserverMaxWaitMs();
+        this.batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-batch-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Overrides {@code pubsub.event-processing.max-concurrent-per-topic} for one topic, also for observers
+     * already registered for it.
+     */
+    public void setTopicConcurrency(String topic, int maxConcurrent) {
+        concurrencyLimiter.setLimit(topic, maxConcurrent);
+    }
 
-    public void registerObserver(String event, IProcessEventObserver observer) {
-        observers.computeIfAbsent(event, k -> new CopyOnWriteArrayList<>()).add(observer);
+    /**
+     * @throws IllegalArgumentException if an observer of the same class is already registered for the topic
+     */
+    public synchronized void registerObserver(String event, IProcessEventObserver observer) {
+        String name = ClassUtils.getUserClass(observer).getSimpleName();
+        if (observers.getOrDefault(event, List.of()).stream().anyMatch(bulkhead -> bulkhead.getName().equals(name))) {
+            throw new IllegalArgumentException(String.format(ERROR_DUPLICATE_OBSERVER, name, event));
+        }
+        PubSubConfiguration.ObserverLimits limits = eventProcessing.getObservers().get(name);
+        Tags tags = Tags.of(TAG_TOPIC, event, TAG_OBSERVER, name);
+        MeterRegistry meterRegistry = metrics.getRegistry();
+        ObserverBulkhead bulkhead = new ObserverBulkhead(event, name, observer, concurrencyLimiter.forTopic(event, executor),
+                eventProcessing.getDispatchLanes(),
+                limits != null && limits.getMaxConcurrent() != null ? limits.getMaxConcurrent() : eventProcessing.getObserverMaxConcurrent(),
+                limits != null && limits.getMaxQueued() != null ? limits.getMaxQueued() : eventProcessing.getObserverMaxQueued(),
+                limits != null && limits.getTimeoutMs() != null ? limits.getTimeoutMs() : eventProcessing.getObserverTimeoutMs(),
+                meterRegistry.counter(METRIC_OBSERVER_TIMEOUTS, tags),
+                meterRegistry.counter(METRIC_OBSERVER_REJECTIONS, tags),
+                observerLatency(tags),
+                metrics.topic(event).observerFailed(),
+                deadLetters);
+        Gauge.builder(METRIC_OBSERVER_QUEUED, bulkhead, ObserverBulkhead::queued).tags(tags).register(meterRegistry);
+        observers.computeIfAbsent(event, k -> new CopyOnWriteArrayList<>()).add(bulkhead);
     }
 
     public void unregisterObserver(String event, IProcessEventObserver observer) {
-        List<IProcessEventObserver> eventObservers = observers.get(event);
-        if (eventObservers != null) {
-            eventObservers.remove(observer);
+        List<ObserverBulkhead> bulkheads = observers.get(event);
+        if (bulkheads != null) {
+            bulkheads.removeIf(bulkhead -> bulkhead.getObserver() == observer);
         }
     }
 
-    public void notifyObservers(String topic, ProcessedEvent event) throws Exception {
-        List<IProcessEventObserver> eventObservers = observers.get(topic);
-        if (eventObservers != null) {
-            List<Future<?>> futures = new ArrayList<>();
-            for (IProcessEventObserver observer : eventObservers) {
-                Future<?> future = executor.submit(() -> {
-                    try {
-                        observer.onEvent(topic, event);
-                    } catch (Exception e) {
-                        log.error("Observer failed for topic: {}", topic, e);
-                    }
-                });
-                futures.add(future);
-            }
-            // Wait for all observers to complete
-            for (Future<?> future : futures) {
-                try {
-                    future.get();
-                } catch (InterruptedException | ExecutionException e) {
-                    log.error("Error waiting for observer completion", e);
-                    Thread.currentThread().interrupt();
-                }
-            }
-        } else {
+    /**
+     * @throws IllegalArgumentException if a batch observer of the same class is already registered for the topic
+     */
+    public synchronized void registerBatchObserver(String event, IProcessBatchObserver observer) {
+        String name = ClassUtils.getUserClass(observer).getSimpleName();
+        if (batchObservers.getOrDefault(event, List.of()).stream().anyMatch(batcher -> batcher.getName().equals(name))) {
+            throw new IllegalArgumentException(String.format(ERROR_DUPLICATE_OBSERVER, name, event));
+        }
+        ObserverBatcher batcher = new ObserverBatcher(event, name, observer, batchMaxSize, batchMaxWaitMs, batchScheduler,
+                concurrencyLimiter.forTopic(event, executor), observerLatency(Tags.of(TAG_TOPIC, event, TAG_OBSERVER, name)),
+                metrics.topic(event).observerFailed(), deadLetters);
+        batchObservers.computeIfAbsent(event, k -> new CopyOnWriteArrayList<>()).add(batcher);
+    }
+
+    public void unregisterBatchObserver(String event, IProcessBatchObserver observer) {
+        List<ObserverBatcher> batchers = batchObservers.get(event);
+        if (batchers != null) {
+            batchers.stream()
+                    .filter(batcher -> batcher.getObserver() == observer)
+                    .forEach(batcher -> {
+                        batcher.flush();
+                        batchers.remove(batcher);
+                    });
+        }
+    }
+
+    /**
+     * Queues the event on the lane of its partition key in every observer's bulkhead.
+     *
+     * @return completes once every observer, including batch observers, has processed the event;
+     * observer failures, timeouts and rejections are logged and do not fail the future
+     */
+    public CompletableFuture<Void> notifyObservers(String topic, ProcessedEvent event) {
+        List<ObserverBulkhead> bulkheads = observers.getOrDefault(topic, List.of());
+        List<ObserverBatcher> batchers = batchObservers.getOrDefault(topic, List.of());
+        if (bulkheads.isEmpty() && batchers.isEmpty()) {
             log.warn("No observers registered for topic: {}", topic);
+            return CompletableFuture.completedFuture(null);
         }
+        int lane = Math.floorMod(partitionKey(topic, event).hashCode(), eventProcessing.getDispatchLanes());
+        return CompletableFuture.allOf(Stream.concat(
+                        bulkheads.stream().map(bulkhead -> bulkhead.submit(lane, event)),
+                        batchers.stream().map(batcher -> batcher.add(event)))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Redelivers an event to the observers of its topic with the given simple class name only, e.g. one
+     * that was dead-lettered for that observer.
+     *
+     * @return completes once those observers have processed the event
+     */
+    public CompletableFuture<Void> notifyObserver(String topic, String observerName, ProcessedEvent event) {
+        int lane = Math.floorMod(partitionKey(topic, event).hashCode(), eventProcessing.getDispatchLanes());
+        CompletableFuture<?>[] futures = Stream.concat(
+                        observers.getOrDefault(topic, List.of()).stream()
+                                .filter(bulkhead -> bulkhead.getName().equals(observerName))
+                                .map(bulkhead -> bulkhead.submit(lane, event)),
+                        batchObservers.getOrDefault(topic, List.of()).stream()
+                                .filter(batcher -> batcher.getName().equals(observerName))
+                                .map(batcher -> batcher.add(event)))
+                .toArray(CompletableFuture[]::new);
+        if (futures.length == 0) {
+            log.warn("Observer {} is not registered for topic: {}", observerName, topic);
+        }
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Time an observer takes for one callback, an event or a batch, excluding time spent queued.
+     */
+    private Timer observerLatency(Tags tags) {
+        return Timer.builder(METRIC_OBSERVER_LATENCY)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(LATENCY_MIN_EXPECTED)
+                .maximumExpectedValue(LATENCY_MAX_EXPECTED)
+                .register(metrics.getRegistry());
+    }
+
+    private String partitionKey(String topic, ProcessedEvent event) {
+        if (partitionKey == PubSubConfiguration.PartitionKey.TOPIC) {
+            return topic;
+        }
+        Object value = event.getRecord();
+        for (String name : partitionField) {
+            if (!(value instanceof GenericRecord record)) {
+                return topic;
+            }
+            Schema.Field field = record.getSchema().getField(name);
+            value = field == null ? null : record.get(field.pos());
+        }
+        // Events without the field keep their order relative to each other
+        return value == null ? topic : topic + '/' + value;
     }
 
     @PreDestroy
     public void shutdown() {
+        batchObservers.values().forEach(batchers -> batchers.forEach(ObserverBatcher::flush));
+        batchScheduler.shutdownNow();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -76,5 +247,4 @@ public class ProcessEventManager {
             Thread.currentThread().interrupt();
         }
     }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.pubsub.exceptions;
+
+/**
+ * Exception thrown when replay ID checkpoints cannot be read or written.
+ */
+public class CheckpointException extends PubSubException {
+
+    public CheckpointException(String message, Throwable cause) {
+        super(message, "CHECKPOINT_ERROR", cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.pubsub.exceptions;
+
+/**
+ * Exception thrown when the dead-letter spool cannot be read or written.
+ */
+public class DeadLetterException extends PubSubException {
+
+    public DeadLetterException(String message, Throwable cause) {
+        super(message, "DEAD_LETTER_ERROR", cause);
+    }
+}
@@ -1,7 +1,7 @@
 package com.pubsub.health;
 
-import com.pubsub.utils.SalesforceSessionTokenService;
-import io.grpc.CallCredentials;
+import com.pubsub.utils.APISessionCredentials;
+import com.pubsub.utils.SalesforceCredentialManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.actuate.health.Health;
@@ -11,7 +11,8 @@ import org.springframework.stereotype.Component;
 /**
  * Custom health indicator for monitoring Salesforce authentication status.
  *
- * This indicator attempts to obtain credentials to verify that:
+ * This indicator reports the session cached by {@link SalesforceCredentialManager} and only logs in
+ * when no valid session is held, which verifies that:
  * - JWT generation is working
  * - OAuth token exchange is successful
  * - Salesforce authentication endpoint is reachable
@@ -21,24 +22,19 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class SalesforceAuthHealthIndicator implements HealthIndicator {
 
-    private final SalesforceSessionTokenService sessionTokenService;
+    private final SalesforceCredentialManager credentialManager;
 
     @Override
     public Health health() {
         try {
-            CallCredentials credentials = sessionTokenService.login();
-
-            if (credentials == null) {
-                return Health.down()
-                        .withDetail("auth", "failed")
-                        .withDetail("status", "Failed to obtain credentials")
-                        .build();
-            }
+            APISessionCredentials credentials = credentialManager.currentSession();
 
             return Health.up()
                     .withDetail("auth", "authenticated")
                     .withDetail("status", "Successfully authenticated with Salesforce")
                     .withDetail("method", "JWT Bearer Token Flow")
+                    .withDetail("tenantId", String.valueOf(credentials.getTenantId()))
+                    .withDetail("sessionExpiresAt", String.valueOf(credentialManager.sessionExpiry()))
                     .build();
 
         } catch (Exception e) {
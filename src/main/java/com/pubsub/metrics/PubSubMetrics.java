@@ -0,0 +1,173 @@
+package com.pubsub.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Meters of the publish and subscribe paths.
+ *
+ * Per-topic meters are created once per topic and handed out as {@link TopicMeters}, so recording an event
+ * costs no registry lookup. Tags are limited to the topic, a fixed stage or outcome, and the observer's class
+ * name, which keeps the number of series bounded by the configured topics and observers.
+ */
+@Component
+public class PubSubMetrics {
+
+    public static final String METRIC_EVENTS_RECEIVED = "pubsub.events.received";
+    public static final String METRIC_EVENTS_PUBLISHED = "pubsub.events.published";
+    public static final String METRIC_EVENTS_FAILED = "pubsub.events.failed";
+    public static final String METRIC_FETCH_BATCH_SIZE = "pubsub.fetch.batch.size";
+    public static final String METRIC_PUBLISH_BATCH_SIZE = "pubsub.publish.batch.size";
+    public static final String METRIC_AVRO_DECODE = "pubsub.avro.decode";
+    public static final String METRIC_AVRO_ENCODE = "pubsub.avro.encode";
+    public static final String METRIC_AUTH_REFRESH = "pubsub.auth.refresh";
+    public static final String TAG_TOPIC = "topic";
+    public static final String TAG_STAGE = "stage";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String STAGE_DECODE = "decode";
+    public static final String STAGE_PUBLISH = "publish";
+    public static final String STAGE_OBSERVER = "observer";
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+
+    private static final String UNIT_EVENTS = "events";
+    private static final double[] BATCH_SIZE_BUCKETS = {1, 10, 25, 50, 100, 200, 500, 1000};
+    private static final Duration AVRO_MIN_EXPECTED = Duration.ofNanos(1000);
+    private static final Duration AVRO_MAX_EXPECTED = Duration.ofMillis(100);
+
+    private final MeterRegistry registry;
+    private final Map<String, TopicMeters> topics = new ConcurrentHashMap<>();
+    private final Timer avroDecode;
+    private final Timer avroEncode;
+    private final Timer authRefreshSuccess;
+    private final Timer authRefreshFailure;
+
+    public PubSubMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.avroDecode = avroTimer(METRIC_AVRO_DECODE);
+        this.avroEncode = avroTimer(METRIC_AVRO_ENCODE);
+        this.authRefreshSuccess = authRefreshTimer(OUTCOME_SUCCESS);
+        this.authRefreshFailure = authRefreshTimer(OUTCOME_FAILURE);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return the meters of the given topic, created on first use
+     */
+    public TopicMeters topic(String topic) {
+        return topics.computeIfAbsent(topic, TopicMeters::new);
+    }
+
+    /**
+     * @return time to decode one event payload into an Avro record
+     */
+    public Timer avroDecode() {
+        return avroDecode;
+    }
+
+    /**
+     * @return time to encode one Avro record into an event payload
+     */
+    public Timer avroEncode() {
+        return avroEncode;
+    }
+
+    /**
+     * @return time of one Salesforce token exchange with the given outcome
+     */
+    public Timer authRefresh(boolean success) {
+        return success ? authRefreshSuccess : authRefreshFailure;
+    }
+
+    private Timer avroTimer(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(AVRO_MIN_EXPECTED)
+                .maximumExpectedValue(AVRO_MAX_EXPECTED)
+                .register(registry);
+    }
+
+    private Timer authRefreshTimer(String outcome) {
+        return Timer.builder(METRIC_AUTH_REFRESH)
+                .tag(TAG_OUTCOME, outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Meters of one topic.
+     */
+    public final class TopicMeters {
+        private final Counter received;
+        private final Counter published;
+        private final Counter decodeFailed;
+        private final Counter publishFailed;
+        private final Counter observerFailed;
+        private final DistributionSummary fetchBatchSize;
+        private final DistributionSummary publishBatchSize;
+
+        private TopicMeters(String topic) {
+            Tags tags = Tags.of(TAG_TOPIC, topic);
+            this.received = registry.counter(METRIC_EVENTS_RECEIVED, tags);
+            this.published = registry.counter(METRIC_EVENTS_PUBLISHED, tags);
+            this.decodeFailed = registry.counter(METRIC_EVENTS_FAILED, tags.and(TAG_STAGE, STAGE_DECODE));
+            this.publishFailed = registry.counter(METRIC_EVENTS_FAILED, tags.and(TAG_STAGE, STAGE_PUBLISH));
+            this.observerFailed = registry.counter(METRIC_EVENTS_FAILED, tags.and(TAG_STAGE, STAGE_OBSERVER));
+            this.fetchBatchSize = batchSize(METRIC_FETCH_BATCH_SIZE, tags);
+            this.publishBatchSize = batchSize(METRIC_PUBLISH_BATCH_SIZE, tags);
+        }
+
+        /**
+         * Records a fetch response carrying the given number of events.
+         */
+        public void onFetched(int events) {
+            received.increment(events);
+            fetchBatchSize.record(events);
+        }
+
+        /**
+         * Records a publish request of the given number of events, before it is sent.
+         */
+        public void onPublishBatch(int events) {
+            publishBatchSize.record(events);
+        }
+
+        /**
+         * Records the final outcome of the events of a publish request, after retries.
+         */
+        public void onPublished(int succeeded, int failed) {
+            published.increment(succeeded);
+            publishFailed.increment(failed);
+        }
+
+        public void onDecodeFailed() {
+            decodeFailed.increment();
+        }
+
+        /**
+         * @return failures of observers to process an event, including timeouts and rejections
+         */
+        public Counter observerFailed() {
+            return observerFailed;
+        }
+
+        private DistributionSummary batchSize(String name, Tags tags) {
+            return DistributionSummary.builder(name)
+                    .baseUnit(UNIT_EVENTS)
+                    .tags(tags)
+                    .serviceLevelObjectives(BATCH_SIZE_BUCKETS)
+                    .register(registry);
+        }
+    }
+}
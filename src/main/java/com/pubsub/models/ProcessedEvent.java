@@ -1,11 +1,21 @@
 package com.pubsub.models;
 
 import com.google.protobuf.ByteString;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
 
+/**
+ * An event received from a subscription, available in three forms: the raw Avro payload, the decoded
+ * {@link GenericRecord}, and a JSON rendering of the record. The JSON view is only built the first time
+ * {@link #getPayload()} is called, so observers that read fields from the record skip that cost.
+ */
 @Data
 @Slf4j
 @Builder
@@ -13,6 +23,39 @@ public class ProcessedEvent {
     private String rpcId;
     private String topic;
     private Schema schema;
-    private String payload;
+    private String schemaId;
+
+    // Avro-encoded payload as received from the Pub/Sub API
+    @ToString.Exclude
+    private ByteString payloadBytes;
+
+    // Payload decoded with the writer schema
+    @ToString.Exclude
+    private GenericRecord record;
+
+    // JSON view of the record, computed on first access
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private volatile String payload;
+
     private ByteString replayId;
+
+    /**
+     * @return JSON rendering of the decoded record, computed once and then memoized, also when several
+     * observers ask for it at the same time
+     */
+    public String getPayload() {
+        String json = payload;
+        if (json == null && record != null) {
+            synchronized (this) {
+                json = payload;
+                if (json == null) {
+                    json = record.toString();
+                    payload = json;
+                }
+            }
+        }
+        return json;
+    }
 }
@@ -0,0 +1,288 @@
+package com.pubsub.services;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientInterceptors;
+import io.grpc.ConnectivityState;
+import io.grpc.Context;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of channels to the Pub/Sub API, each with its own HTTP/2 connection, so that traffic is not
+ * limited by the concurrent-stream limit and flow-control window of a single connection.
+ *
+ * Unary calls are spread over the channels round-robin. Each long-lived stream goes to the channel
+ * carrying the fewest open streams, whose slot is reserved when the channel is chosen so that concurrent
+ * callers cannot overshoot the per-channel limit; once every channel is at the limit, new streams fail with
+ * {@code RESOURCE_EXHAUSTED}. The reservation travels in the gRPC {@link Context} of the caller that opens
+ * the stream, so only that caller's call can take it, and it is released if no stream is opened. A channel
+ * counts a stream until it closes. A channel found shut down is replaced on its next use.
+ *
+ * Callers get the stubs of a channel rather than the channel itself. They are built once per channel and
+ * replaced together with it, so nothing keeps a replaced channel reachable.
+ *
+ * @param <S> stubs built on each pooled channel
+ */
+@Slf4j
+public class ChannelPool<S> {
+
+    private static final String ERROR_STREAM_LIMIT = "All %d channels carry %d streams; raise pubsub.grpc.channel-pool-size";
+    private static final String METRIC_STREAMS = "pubsub.grpc.channel.streams";
+    private static final String METRIC_CALLS = "pubsub.grpc.channel.calls";
+    private static final String TAG_CHANNEL = "channel";
+    private static final String TAG_TYPE = "type";
+    private static final Context.Key<StreamSlot> RESERVED_SLOT = Context.key("pubsub-reserved-stream-slot");
+
+    private final List<PooledChannel<S>> channels;
+    private final int maxStreamsPerChannel;
+    private final AtomicInteger nextUnary = new AtomicInteger();
+
+    /**
+     * @param stubFactory   builds the stubs of a channel; called once per created channel
+     * @param meterRegistry registry for per-channel metrics, or {@code null} to export none
+     */
+    public ChannelPool(int size, int maxStreamsPerChannel, Supplier<ManagedChannel> channelFactory,
+                       Function<Channel, S> stubFactory, MeterRegistry meterRegistry) {
+        this.maxStreamsPerChannel = maxStreamsPerChannel;
+        this.channels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            channels.add(new PooledChannel<>(i, channelFactory, stubFactory, meterRegistry));
+        }
+    }
+
+    /**
+     * @return stubs of the next channel in round-robin order
+     */
+    public S forUnary() {
+        return channels.get(Math.floorMod(nextUnary.getAndIncrement(), channels.size())).get();
+    }
+
+    /**
+     * Reserves a stream slot on the channel carrying the fewest open streams and opens a stream on its stubs.
+     * The first stream created by {@code open} on the calling thread takes the slot; if it creates none, or
+     * throws, the slot is released.
+     *
+     * @param open opens one stream on the stubs of the chosen channel
+     * @return whatever {@code open} returned
+     * @throws io.grpc.StatusRuntimeException {@code RESOURCE_EXHAUSTED} if every channel is at the limit
+     */
+    public <T> T openStream(Function<S, T> open) {
+        PooledChannel<S> channel = reserveStream();
+        StreamSlot slot = new StreamSlot(channel);
+        Context reserving = Context.current().withValue(RESERVED_SLOT, slot);
+        Context previous = reserving.attach();
+        try {
+            return open.apply(channel.get());
+        } finally {
+            reserving.detach(previous);
+            slot.release();
+        }
+    }
+
+    private PooledChannel<S> reserveStream() {
+        while (true) {
+            PooledChannel<S> leastLoaded = null;
+            int load = Integer.MAX_VALUE;
+            for (PooledChannel<S> channel : channels) {
+                int streams = channel.streams.get();
+                if (streams < load) {
+                    leastLoaded = channel;
+                    load = streams;
+                }
+            }
+            if (load >= maxStreamsPerChannel) {
+                throw Status.RESOURCE_EXHAUSTED
+                        .withDescription(String.format(ERROR_STREAM_LIMIT, channels.size(), maxStreamsPerChannel))
+                        .asRuntimeException();
+            }
+            if (leastLoaded.streams.compareAndSet(load, load + 1)) {
+                return leastLoaded;
+            }
+            // Another caller took a slot in the meantime; choose again
+        }
+    }
+
+    /**
+     * @return open streams per channel, by channel index
+     */
+    public List<Integer> getStreamCounts() {
+        List<Integer> counts = new ArrayList<>(channels.size());
+        for (PooledChannel<S> channel : channels) {
+            counts.add(channel.streams.get());
+        }
+        return counts;
+    }
+
+    /**
+     * @param requestConnection whether idle channels should start connecting
+     * @return connectivity state per channel, by channel index
+     */
+    public List<ConnectivityState> getStates(boolean requestConnection) {
+        List<ConnectivityState> states = new ArrayList<>(channels.size());
+        for (PooledChannel<S> channel : channels) {
+            states.add(channel.managed().getState(requestConnection));
+        }
+        return states;
+    }
+
+    /**
+     * @return whether every channel has been shut down
+     */
+    public boolean isShutdown() {
+        for (PooledChannel<S> channel : channels) {
+            ManagedChannel managed = channel.channel;
+            if (managed == null || !managed.isShutdown()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shuts all channels down, forcing those that have not terminated within the timeout.
+     *
+     * @return whether all channels terminated gracefully
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (PooledChannel<S> channel : channels) {
+            if (channel.channel != null) {
+                channel.channel.shutdown();
+            }
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean graceful = true;
+        for (PooledChannel<S> channel : channels) {
+            ManagedChannel managed = channel.channel;
+            if (managed != null && !managed.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                managed.shutdownNow();
+                graceful = false;
+            }
+        }
+        return graceful;
+    }
+
+    /**
+     * Shuts all channels down immediately.
+     */
+    public void shutdownNow() {
+        for (PooledChannel<S> channel : channels) {
+            if (channel.channel != null) {
+                channel.channel.shutdownNow();
+            }
+        }
+    }
+
+    private static final class PooledChannel<S> implements ClientInterceptor {
+        private final Supplier<ManagedChannel> channelFactory;
+        private final Function<Channel, S> stubFactory;
+        // Open streams plus reserved slots
+        private final AtomicInteger streams = new AtomicInteger();
+        private final Counter unaryCalls;
+        private final Counter streamCalls;
+        private volatile ManagedChannel channel;
+        private volatile S stubs;
+
+        PooledChannel(int index, Supplier<ManagedChannel> channelFactory, Function<Channel, S> stubFactory,
+                      MeterRegistry meterRegistry) {
+            this.channelFactory = channelFactory;
+            this.stubFactory = stubFactory;
+            if (meterRegistry != null) {
+                Tags tags = Tags.of(TAG_CHANNEL, Integer.toString(index));
+                meterRegistry.gauge(METRIC_STREAMS, tags, streams);
+                this.unaryCalls = meterRegistry.counter(METRIC_CALLS, tags.and(TAG_TYPE, "unary"));
+                this.streamCalls = meterRegistry.counter(METRIC_CALLS, tags.and(TAG_TYPE, "stream"));
+            } else {
+                this.unaryCalls = null;
+                this.streamCalls = null;
+            }
+        }
+
+        S get() {
+            managed();
+            return stubs;
+        }
+
+        synchronized ManagedChannel managed() {
+            if (channel == null || channel.isShutdown() || channel.isTerminated()) {
+                channel = channelFactory.get();
+                stubs = stubFactory.apply(ClientInterceptors.intercept(channel, this));
+            }
+            return channel;
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                   CallOptions callOptions, Channel next) {
+            if (method.getType() == MethodDescriptor.MethodType.UNARY) {
+                if (unaryCalls != null) {
+                    unaryCalls.increment();
+                }
+                return next.newCall(method, callOptions);
+            }
+            if (streamCalls != null) {
+                streamCalls.increment();
+            }
+            StreamSlot slot = RESERVED_SLOT.get();
+            if (slot == null || slot.channel != this || !slot.take()) {
+                // Not the stream a slot was reserved for on this channel
+                streams.incrementAndGet();
+            }
+            AtomicBoolean open = new AtomicBoolean(true);
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onClose(Status status, Metadata trailers) {
+                            if (open.compareAndSet(true, false)) {
+                                streams.decrementAndGet();
+                            }
+                            super.onClose(status, trailers);
+                        }
+                    }, headers);
+                }
+            };
+        }
+    }
+
+    /**
+     * A stream slot reserved on a channel, either taken by the stream it was reserved for or released.
+     */
+    private static final class StreamSlot {
+        private final PooledChannel<?> channel;
+        private final AtomicBoolean pending = new AtomicBoolean(true);
+
+        StreamSlot(PooledChannel<?> channel) {
+            this.channel = channel;
+        }
+
+        boolean take() {
+            return pending.compareAndSet(true, false);
+        }
+
+        void release() {
+            if (pending.compareAndSet(true, false)) {
+                channel.streams.decrementAndGet();
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.pubsub.services;
 
-import com.pubsub.utils.SalesforceSessionTokenService;
+import com.pubsub.utils.SalesforceCredentialManager;
 import com.salesforce.eventbus.protobuf.PublishResponse;
 
 import io.grpc.CallCredentials;
@@ -21,11 +21,11 @@ public class EventPublishService {
 
     private final Publish publish;
     private final TopicSchema topicSchema;
-    private final SalesforceSessionTokenService salesforceSessionTokenService;
+    private final SalesforceCredentialManager credentialManager;
 
     public PublishResponse publishEvent() throws Exception {
         try {
-            var callCredentials = salesforceSessionTokenService.login();
+            var callCredentials = credentialManager.getCredentials();
             var schema = fetchSchema(callCredentials);
             var eventMessage = createEventMessage(schema);
             return publish.publishEvent(TOPIC, eventMessage, callCredentials);
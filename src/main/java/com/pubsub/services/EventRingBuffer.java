@@ -0,0 +1,243 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, preallocated ring of received events between a stream's gRPC callback thread and its consumer
+ * threads, modeled on the Disruptor.
+ *
+ * The single producer writes into a slot and publishes it with a volatile store of its sequence. Consumers
+ * claim sequences with a CAS on a shared cursor, copy the slot out and release it, so no lock is taken and
+ * nothing is allocated per event on either side. Idle consumers wait according to the configured
+ * {@link PubSubConfiguration.WaitStrategy}; only BLOCKING makes the producer signal a condition, and only
+ * while a consumer is actually waiting on it.
+ *
+ * The producer never waits for space. Flow control keeps the ring from filling up; if the server sends more
+ * events than were requested anyway, the excess goes to an overflow list that consumers move into the ring
+ * as slots free up, in publish order. Writers of the ring, the producer and consumers draining the overflow,
+ * are serialized by a lock that is uncontended while nothing overflows.
+ */
+final class EventRingBuffer {
+
+    // Idle rounds spent spinning, then yielding, before SLEEPING parks
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 200;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long BLOCKING_TIMEOUT_MS = 100;
+
+    @FunctionalInterface
+    interface EventHandler {
+        void onEvent(ConsumerEvent event, String rpcId, long tag);
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final PubSubConfiguration.WaitStrategy waitStrategy;
+    private final AtomicLong claimCursor = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger blockedConsumers = new AtomicInteger();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Guarded by writeLock
+    private final Queue<Pending> overflow = new ArrayDeque<>();
+    private volatile int overflowSize;
+    // Written under writeLock only
+    private volatile long publishCursor;
+
+    /**
+     * @param minCapacity number of slots needed; rounded up to a power of two
+     */
+    EventRingBuffer(int minCapacity, PubSubConfiguration.WaitStrategy waitStrategy) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i - capacity);
+        }
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return events published but not yet taken by a consumer, including overflowed ones
+     */
+    int size() {
+        return (int) (publishCursor - claimCursor.get()) + overflowSize;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Publishes an event without waiting. If the ring is full, the event is added to the overflow list.
+     */
+    void publish(ConsumerEvent event, String rpcId, long tag) {
+        writeLock.lock();
+        try {
+            if (!overflow.isEmpty() || !tryWrite(event, rpcId, tag)) {
+                overflow.add(new Pending(event, rpcId, tag));
+                overflowSize = overflow.size();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (blockedConsumers.get() > 0) {
+            signalAll();
+        }
+    }
+
+    /**
+     * Writes an event into the next slot if it is free. Called while holding the write lock.
+     */
+    private boolean tryWrite(ConsumerEvent event, String rpcId, long tag) {
+        long sequence = publishCursor;
+        Slot slot = slots[(int) (sequence & mask)];
+        if (slot.released != sequence - slots.length) {
+            return false;
+        }
+        slot.event = event;
+        slot.rpcId = rpcId;
+        slot.tag = tag;
+        slot.available = sequence;
+        publishCursor = sequence + 1;
+        return true;
+    }
+
+    /**
+     * Moves overflowed events into the slots freed so far.
+     */
+    private void drainOverflow() {
+        writeLock.lock();
+        try {
+            Pending pending;
+            while ((pending = overflow.peek()) != null && tryWrite(pending.event(), pending.rpcId(), pending.tag())) {
+                overflow.remove();
+            }
+            overflowSize = overflow.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next event, if any, and passes it to the handler after its slot has been released.
+     *
+     * @return whether an event was taken
+     */
+    boolean poll(EventHandler handler) {
+        if (overflowSize > 0) {
+            drainOverflow();
+        }
+        while (true) {
+            long sequence = claimCursor.get();
+            if (sequence >= publishCursor) {
+                return false;
+            }
+            Slot slot = slots[(int) (sequence & mask)];
+            if (slot.available != sequence) {
+                return false;
+            }
+            if (claimCursor.compareAndSet(sequence, sequence + 1)) {
+                ConsumerEvent event = slot.event;
+                String rpcId = slot.rpcId;
+                long tag = slot.tag;
+                slot.event = null;
+                slot.rpcId = null;
+                slot.released = sequence;
+                handler.onEvent(event, rpcId, tag);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Waits for events after a consumer found the ring empty.
+     *
+     * @param idle number of consecutive empty polls so far
+     */
+    void awaitEvents(int idle) {
+        if (waitStrategy != PubSubConfiguration.WaitStrategy.BLOCKING) {
+            backOff(idle);
+            return;
+        }
+        lock.lock();
+        // Registered before the emptiness check, so a producer publishing concurrently either is seen here
+        // or sees this consumer and signals
+        blockedConsumers.incrementAndGet();
+        try {
+            if (isEmpty()) {
+                notEmpty.await(BLOCKING_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            blockedConsumers.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up blocked consumers, e.g. so they notice that the stream was closed.
+     */
+    void signalAll() {
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backOff(int idle) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (idle < SPIN_ROUNDS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            default -> {
+                if (idle < SPIN_ROUNDS) {
+                    Thread.onSpinWait();
+                } else if (idle < YIELD_ROUNDS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+        }
+    }
+
+    private static final class Slot {
+        private ConsumerEvent event;
+        private String rpcId;
+        private long tag;
+        // Sequence whose data the slot currently holds; the volatile write publishes the fields above
+        private volatile long available = -1;
+        // Sequence last taken out of the slot; the slot is free for sequence + capacity
+        private volatile long released;
+
+        Slot(long released) {
+            this.released = released;
+        }
+    }
+
+    private record Pending(ConsumerEvent event, String rpcId, long tag) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.pubsub.services;
+
+/**
+ * Credit accounting for one subscribe stream.
+ *
+ * Events are either outstanding (requested from the server but not yet received) or buffered (received but
+ * not yet consumed downstream). Whenever the sum of both drops to the low watermark, enough credits are
+ * requested to bring it back up to the high watermark, so the server always has events to send while
+ * consumers are busy, and the client never holds more than the high watermark in memory.
+ *
+ * Outstanding credits are counted locally: added when requested and subtracted when events arrive. The
+ * server's {@code pending_num_requested} lags behind requests still in flight, so it can only be below the
+ * local count; it is used as a bound, never to lower the count.
+ */
+public class FetchCreditController {
+
+    private final int highWatermark;
+    private final int lowWatermark;
+    private int outstanding;
+    private int buffered;
+
+    public FetchCreditController(int highWatermark, int lowWatermark) {
+        if (lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Low watermark must be below high watermark");
+        }
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+    }
+
+    /**
+     * @return credits to request when the stream is opened
+     */
+    public synchronized int initialCredits() {
+        return grantCredits();
+    }
+
+    /**
+     * Records a FetchResponse.
+     *
+     * @param received            number of events in the response
+     * @param pendingNumRequested server's count of requested events it has not delivered yet
+     * @return credits to request now, or 0
+     */
+    public synchronized int onReceived(int received, int pendingNumRequested) {
+        buffered += received;
+        outstanding = Math.max(Math.max(0, outstanding - received), pendingNumRequested);
+        return grantCredits();
+    }
+
+    /**
+     * Takes back credits that were granted but could not be requested from the server.
+     */
+    public synchronized void onRequestFailed(int notRequested) {
+        outstanding = Math.max(0, outstanding - notRequested);
+    }
+
+    /**
+     * Records events that downstream processing has finished with.
+     *
+     * @return credits to request now, or 0
+     */
+    public synchronized int onConsumed(int consumed) {
+        buffered = Math.max(0, buffered - consumed);
+        return grantCredits();
+    }
+
+    public synchronized int getBuffered() {
+        return buffered;
+    }
+
+    public synchronized int getOutstanding() {
+        return outstanding;
+    }
+
+    private int grantCredits() {
+        int inPipeline = outstanding + buffered;
+        if (inPipeline > lowWatermark) {
+            return 0;
+        }
+        int credits = highWatermark - inPipeline;
+        outstanding += credits;
+        return credits;
+    }
+}
@@ -0,0 +1,145 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.buffer.PooledByteBufAllocator;
+import io.grpc.netty.shaded.io.netty.channel.ChannelOption;
+import io.grpc.netty.shaded.io.netty.channel.MultithreadEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.SocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Netty transport shared by all channels to the Pub/Sub API.
+ *
+ * Channels share one event-loop group, native epoll where available and NIO otherwise, one executor for
+ * call callbacks and one pooled direct-buffer allocator, so adding channels to the pool adds connections
+ * but no threads or buffer arenas. Keepalive, flow-control windows and the inbound message limit come from
+ * {@code pubsub.grpc.*}.
+ *
+ * The unary methods get their deadlines, and GetTopic and GetSchema their optional hedging policy, from the
+ * channels' default service config, so they apply to every stub and are retried or hedged by the channel
+ * below the interceptors.
+ */
+@Slf4j
+@Component
+public class GrpcTransport {
+
+    private static final String LOG_TRANSPORT = "gRPC transport: {} with {} event-loop threads";
+    private static final String LOG_EPOLL_UNAVAILABLE = "Native epoll transport unavailable, using NIO: {}";
+    private static final String EVENT_LOOP_THREAD_PREFIX = "grpc-event-loop";
+    private static final String EXECUTOR_THREAD_PREFIX = "grpc-executor";
+    private static final long EVENT_LOOP_QUIET_PERIOD_MS = 100;
+    private static final List<String> HEDGING_NON_FATAL_STATUS_CODES = List.of("UNAVAILABLE");
+
+    private final PubSubConfiguration.GrpcConfig grpc;
+    private final MultithreadEventLoopGroup eventLoopGroup;
+    private final Class<? extends SocketChannel> channelType;
+    private final ExecutorService executor;
+    private final PooledByteBufAllocator allocator = new PooledByteBufAllocator(true);
+    private final Map<String, ?> serviceConfig;
+
+    public GrpcTransport(PubSubConfiguration config) {
+        this.grpc = config.getGrpc();
+        // Netty threads are daemons, so a context that fails to start does not keep the JVM alive
+        DefaultThreadFactory eventLoopThreads = new DefaultThreadFactory(EVENT_LOOP_THREAD_PREFIX, true);
+        if (grpc.isEpollEnabled() && Epoll.isAvailable()) {
+            this.eventLoopGroup = new EpollEventLoopGroup(grpc.getEventLoopThreads(), eventLoopThreads);
+            this.channelType = EpollSocketChannel.class;
+        } else {
+            if (grpc.isEpollEnabled()) {
+                log.info(LOG_EPOLL_UNAVAILABLE, Epoll.unavailabilityCause().toString());
+            }
+            this.eventLoopGroup = new NioEventLoopGroup(grpc.getEventLoopThreads(), eventLoopThreads);
+            this.channelType = NioSocketChannel.class;
+        }
+        this.executor = Executors.newCachedThreadPool(new DefaultThreadFactory(EXECUTOR_THREAD_PREFIX, true));
+        this.serviceConfig = serviceConfig(grpc);
+        log.info(LOG_TRANSPORT, channelType.getSimpleName(), eventLoopGroup.executorCount());
+    }
+
+    /**
+     * @return a new channel to the configured host on the shared transport
+     */
+    public ManagedChannel newChannel() {
+        NettyChannelBuilder builder = NettyChannelBuilder.forAddress(grpc.getHost(), grpc.getPort())
+                .eventLoopGroup(eventLoopGroup)
+                .channelType(channelType)
+                .executor(executor)
+                .offloadExecutor(executor)
+                .withOption(ChannelOption.ALLOCATOR, allocator)
+                .idleTimeout(grpc.getChannelIdleTimeoutMinutes(), TimeUnit.MINUTES)
+                .keepAliveTime(grpc.getKeepAliveTimeSeconds(), TimeUnit.SECONDS)
+                .keepAliveTimeout(grpc.getKeepAliveTimeoutSeconds(), TimeUnit.SECONDS)
+                .keepAliveWithoutCalls(grpc.isKeepAliveWithoutCalls())
+                .maxInboundMessageSize(grpc.getMaxInboundMessageBytes())
+                .defaultServiceConfig(serviceConfig)
+                .enableRetry();
+        if (grpc.isFlowControlAutoTuning()) {
+            builder.initialFlowControlWindow(grpc.getInitialFlowControlWindowBytes());
+        } else {
+            builder.flowControlWindow(grpc.getInitialFlowControlWindowBytes());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the service config with the deadline of each unary method and, if enabled, hedging of the
+     * idempotent lookups. Numbers are doubles and durations strings, as in parsed JSON.
+     */
+    static Map<String, ?> serviceConfig(PubSubConfiguration.GrpcConfig grpc) {
+        Map<String, Object> getTopic = methodConfig(PubSubGrpc.getGetTopicMethod(), grpc.getGetTopicDeadlineMs());
+        Map<String, Object> getSchema = methodConfig(PubSubGrpc.getGetSchemaMethod(), grpc.getGetSchemaDeadlineMs());
+        if (grpc.isHedgingEnabled()) {
+            Map<String, Object> hedgingPolicy = Map.of(
+                    "maxAttempts", (double) grpc.getHedgingMaxAttempts(),
+                    "hedgingDelay", duration(grpc.getHedgingDelayMs()),
+                    "nonFatalStatusCodes", HEDGING_NON_FATAL_STATUS_CODES);
+            getTopic.put("hedgingPolicy", hedgingPolicy);
+            getSchema.put("hedgingPolicy", hedgingPolicy);
+        }
+        Map<String, Object> publish = methodConfig(PubSubGrpc.getPublishMethod(), grpc.getPublishDeadlineMs());
+        return Map.of("methodConfig", List.of(getTopic, getSchema, publish));
+    }
+
+    private static Map<String, Object> methodConfig(MethodDescriptor<?, ?> method, long deadlineMs) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("name", List.of(Map.of(
+                "service", PubSubGrpc.SERVICE_NAME,
+                "method", method.getBareMethodName())));
+        config.put("timeout", duration(deadlineMs));
+        return config;
+    }
+
+    private static String duration(long millis) {
+        return String.format("%d.%03ds", millis / 1000, millis % 1000);
+    }
+
+    /**
+     * Stops the shared threads. Runs after the channels have been shut down, since channel owners depend
+     * on this bean.
+     */
+    @PreDestroy
+    public void shutdown() {
+        long timeoutSeconds = grpc.getShutdownTimeoutSeconds();
+        eventLoopGroup.shutdownGracefully(EVENT_LOOP_QUIET_PERIOD_MS, TimeUnit.SECONDS.toMillis(timeoutSeconds), TimeUnit.MILLISECONDS);
+        executor.shutdown();
+    }
+}
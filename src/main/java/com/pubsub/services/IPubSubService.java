@@ -8,6 +8,9 @@ import com.salesforce.eventbus.protobuf.TopicInfo;
 import com.salesforce.eventbus.protobuf.TopicRequest;
 import io.grpc.CallCredentials;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 public interface IPubSubService {
     void checkSubscriptionStatus(String topicName, CallCredentials callCredentials);
 
@@ -15,7 +18,7 @@ public interface IPubSubService {
 
     PubSubGrpc.PubSubBlockingStub pubSubBlockingStub(CallCredentials callCredentials);
 
-    PubSubGrpc.PubSubStub pubSubAsyncStub(CallCredentials callCredentials);
+    <T> T openStream(CallCredentials callCredentials, Function<PubSubGrpc.PubSubStub, T> open);
 
     void logError(String context, Exception e);
 
@@ -23,8 +26,8 @@ public interface IPubSubService {
 
     PublishResponse publish(PublishRequest publishRequest, CallCredentials callCredentials);
 
-    TopicInfo getTopicInfo(TopicRequest topicName, CallCredentials callCredentials);
+    CompletableFuture<TopicInfo> getTopicInfoAsync(TopicRequest topicName, CallCredentials callCredentials);
 
-    SchemaInfo getSchemaInfo(String schemaId, CallCredentials callCredentials);
+    CompletableFuture<SchemaInfo> getSchemaInfoAsync(String schemaId, CallCredentials callCredentials);
 
 }
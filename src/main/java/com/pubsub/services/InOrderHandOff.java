@@ -0,0 +1,54 @@
+package com.pubsub.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs tasks submitted out of order by several threads in the order of their sequence numbers.
+ *
+ * Consumer threads of a stream decode events in parallel and finish in any order, but must hand them to the
+ * dispatch lanes in delivery order, or events with the same key could reach their lane out of order. A task
+ * whose predecessors are still missing is parked here, and the thread that submits the missing one runs all
+ * tasks that have become ready. Tasks run one at a time, outside the lock, so they should be short.
+ */
+final class InOrderHandOff {
+
+    // Guarded by this
+    private final Map<Long, Runnable> waiting = new HashMap<>();
+    private long next;
+    private boolean running;
+
+    /**
+     * @param sequence number of the task, starting at 0 without gaps
+     */
+    void submit(long sequence, Runnable task) {
+        synchronized (this) {
+            waiting.put(sequence, task);
+            if (running) {
+                // The running thread will pick it up
+                return;
+            }
+            running = true;
+        }
+        while (true) {
+            Runnable ready;
+            synchronized (this) {
+                ready = waiting.remove(next);
+                if (ready == null) {
+                    running = false;
+                    return;
+                }
+                next++;
+            }
+            try {
+                ready.run();
+            } catch (RuntimeException e) {
+                // Let the next submitter carry on with the remaining tasks
+                synchronized (this) {
+                    running = false;
+                }
+                throw e;
+            }
+        }
+    }
+}
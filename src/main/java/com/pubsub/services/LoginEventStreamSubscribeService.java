@@ -1,7 +1,8 @@
 package com.pubsub.services;
 
+import com.pubsub.config.PubSubConfiguration;
 import com.pubsub.config.SalesforceSubscribeConfig;
-import com.pubsub.utils.SalesforceSessionTokenService;
+import com.pubsub.utils.SalesforceCredentialManager;
 import com.salesforce.eventbus.protobuf.ReplayPreset;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -17,16 +18,19 @@ import java.util.List;
 public class LoginEventStreamSubscribeService {
 
     private static final String TOPIC = "/event/LoginEventStream";
-    private static final int EVENTS_PER_FETCH = 5;
 
     private final Subscribe subscribe;
+    private final PubSubConfiguration config;
     private final SalesforceSubscribeConfig salesforceSubscribeConfig;
-    private final SalesforceSessionTokenService salesforceSessionTokenService;
+    private final SalesforceCredentialManager credentialManager;
+    private final SubscriptionManager subscriptionManager;
 
     @PostConstruct
     @ConditionalOnProperty(value = "salesforce-subscribe-config.event-listening-on", havingValue = "true")
     public void startStreamEventSubscription() {
-        if (isTopicActive()) {
+        if (subscriptionManager.isConfigured(TOPIC)) {
+            log.info("Topic {} is subscribed to from salesforce-subscribe-config.subscriptions", TOPIC);
+        } else if (isTopicActive()) {
             startSubscription();
         } else {
             logInactiveTopicWarning();
@@ -41,7 +45,7 @@ public class LoginEventStreamSubscribeService {
     private void startSubscription() {
         try {
             log.info("Starting subscription for topic: {}", TOPIC);
-            subscribe.startSubscription(TOPIC, EVENTS_PER_FETCH, ReplayPreset.LATEST, salesforceSessionTokenService.login());
+            subscribe.startSubscription(TOPIC, config.getEventProcessing().getBatchSize(), ReplayPreset.LATEST, credentialManager.getCredentials());
         } catch (Exception e) {
             log.error("Failed to start subscription for topic: {}", TOPIC, e);
         }
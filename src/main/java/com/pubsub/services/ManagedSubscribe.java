@@ -0,0 +1,270 @@
+package com.pubsub.services;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.CommitReplayRequest;
+import com.salesforce.eventbus.protobuf.CommitReplayResponse;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+import com.salesforce.eventbus.protobuf.ManagedFetchRequest;
+import com.salesforce.eventbus.protobuf.ManagedFetchResponse;
+import io.grpc.CallCredentials;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Client for the {@code ManagedSubscribe} RPC, where the server stores the subscription's position.
+ *
+ * Events are delivered with the same flow control as {@link Subscribe} and handed to the same observers.
+ * Instead of committing every processed replay ID, the latest one is committed when
+ * {@code pubsub.managed-subscribe.commit-batch-size} events have been processed since the previous commit,
+ * or every {@code pubsub.managed-subscribe.commit-interval-ms}. Commits are matched to their
+ * {@link CommitReplayResponse} by {@code commit_request_id}; since the server may answer several commits
+ * with one response, a response also settles every older commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ManagedSubscribe {
+
+    private static final String LOG_STARTING = "Starting managed subscription {} for topic {}";
+    private static final String LOG_RECEIVED_BATCH = "Received batch of {} {} with RPC ID: {}";
+    private static final String LOG_RECONNECTING = "Reconnecting managed subscription {}";
+    private static final String LOG_SUBSCRIPTION_COMPLETED = "Call completed by server. Closing managed subscription {}.";
+    private static final String LOG_COMMIT_FAILED = "Commit {} of managed subscription {} failed: {} {}";
+    private static final String LOG_UNKNOWN_COMMIT = "Ignoring response to unknown commit {} of managed subscription {}";
+    private static final String ERROR_COMMIT = "Failed to commit replay ID of managed subscription {}: {}";
+    private static final String ERROR_SUBSCRIPTION = "Error during managed subscription {}";
+    private static final String ERROR_START = "Failed to start managed subscription {}";
+
+    private static final String METRIC_COMMIT_LAG = "pubsub.managed.commit.lag";
+    private static final String METRIC_COMMIT_LATENCY = "pubsub.managed.commit.latency";
+    private static final String METRIC_COMMIT_FAILURES = "pubsub.managed.commit.failures";
+    private static final String TAG_SUBSCRIPTION = "subscription";
+
+    private final IPubSubService pubSubService;
+    private final PubSubConfiguration config;
+    private final SalesforceCredentialManager credentialManager;
+    private final Subscribe subscribe;
+    private final MeterRegistry meterRegistry;
+    private final SubscriptionSupervisor supervisor;
+    private final PubSubMetrics metrics;
+
+    // Processed events not yet covered by an acknowledged commit, per managed subscription
+    private final Map<String, AtomicLong> commitLag = new ConcurrentHashMap<>();
+    private final Set<ManagedSubscription> activeSubscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService commitScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "managed-subscribe-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param developerName developer name of the ManagedEventSubscription record
+     * @param topic         topic the managed subscription listens to, used to route events to observers
+     */
+    public void startManagedSubscription(String developerName, String topic, int batchSize, CallCredentials callCredentials) {
+        SubscriptionSupervisor.Supervision supervision = supervisor.supervise(developerName, reconnecting -> {
+            log.info(LOG_RECONNECTING, developerName);
+            new ManagedSubscription(developerName, topic, batchSize, credentialManager.getCredentials(), reconnecting).open();
+        });
+        try {
+            log.info(LOG_STARTING, developerName, topic);
+            new ManagedSubscription(developerName, topic, batchSize, callCredentials, supervision).open();
+        } catch (Exception e) {
+            log.error(ERROR_START, developerName, e);
+            supervision.onFailure(e);
+        }
+    }
+
+    /**
+     * Commits the progress of open subscriptions before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        activeSubscriptions.forEach(ManagedSubscription::commit);
+        commitScheduler.shutdownNow();
+    }
+
+    private record PendingCommit(ByteString replayId, long processedCount, long sentAtNanos) {
+    }
+
+    private class ManagedSubscription extends SubscriptionStream<ManagedFetchResponse> {
+        private final String developerName;
+        private final CallCredentials callCredentials;
+        private final SubscriptionSupervisor.Supervision supervision;
+        private final AtomicLong lag;
+        private final Timer commitLatency;
+        private final Counter commitFailures;
+        private StreamObserver<ManagedFetchRequest> requestObserver;
+        private ScheduledFuture<?> commitTask;
+
+        // Guarded by this. Commits awaiting a response, oldest first.
+        private final Map<String, PendingCommit> pendingCommits = new LinkedHashMap<>();
+        private boolean subscribed;
+        private ByteString processed;
+        private long processedCount;
+        private ByteString lastCommitted;
+        private long committedCount;
+        private long acknowledgedCount;
+
+        ManagedSubscription(String developerName, String topic, int batchSize, CallCredentials callCredentials,
+                            SubscriptionSupervisor.Supervision supervision) {
+            super(topic, batchSize, config.getEventProcessing(), metrics.topic(topic));
+            this.developerName = developerName;
+            this.callCredentials = callCredentials;
+            this.supervision = supervision;
+            Tags tags = Tags.of(TAG_SUBSCRIPTION, developerName);
+            this.lag = commitLag.computeIfAbsent(developerName, name -> meterRegistry.gauge(METRIC_COMMIT_LAG, tags, new AtomicLong()));
+            this.commitLatency = meterRegistry.timer(METRIC_COMMIT_LATENCY, tags);
+            this.commitFailures = meterRegistry.counter(METRIC_COMMIT_FAILURES, tags);
+        }
+
+        void open() {
+            lag.set(0);
+            requestObserver = pubSubService.openStream(callCredentials, stub -> stub.managedSubscribe(this));
+            long interval = config.getManagedSubscribe().getCommitIntervalMs();
+            commitTask = commitScheduler.scheduleWithFixedDelay(this::commit, interval, interval, TimeUnit.MILLISECONDS);
+            activeSubscriptions.add(this);
+            start();
+        }
+
+        @Override
+        public void onNext(ManagedFetchResponse response) {
+            supervision.onConnected();
+            if (response.hasCommitResponse()) {
+                onCommitResponse(response.getCommitResponse());
+            }
+            if (!response.getEventsList().isEmpty()) {
+                log.info(LOG_RECEIVED_BATCH, response.getEventsCount(), topic, response.getRpcId());
+            } else if (!response.getLatestReplayId().isEmpty() && checkpoints.isCaughtUp()) {
+                // Nothing left to process, so the position can move past events the subscription filtered out
+                synchronized (this) {
+                    processed = response.getLatestReplayId();
+                }
+            }
+            onEvents(response.getEventsList(), response.getRpcId(), response.getPendingNumRequested());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            stop();
+            log.error(ERROR_SUBSCRIPTION, developerName, t);
+            supervision.onFailure(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            log.info(LOG_SUBSCRIPTION_COMPLETED, developerName);
+            stop();
+        }
+
+        @Override
+        protected Supplier<CompletableFuture<Void>> decode(ConsumerEvent event, String rpcId) {
+            return subscribe.decodeEvent(event, topic, rpcId, callCredentials);
+        }
+
+        @Override
+        protected void sendFetchRequest(int numRequested) {
+            ManagedFetchRequest.Builder fetchRequest = ManagedFetchRequest.newBuilder().setNumRequested(numRequested);
+            // Only the first request of the stream names the subscription
+            if (!subscribed) {
+                fetchRequest.setDeveloperName(developerName);
+                subscribed = true;
+            }
+            requestObserver.onNext(fetchRequest.build());
+        }
+
+        @Override
+        protected void onCheckpoint(ByteString replayId) {
+            long checkpointed = checkpoints.getCheckpointed();
+            synchronized (this) {
+                processed = replayId;
+                processedCount = checkpointed;
+                lag.set(processedCount - acknowledgedCount);
+                if (processedCount - committedCount >= config.getManagedSubscribe().getCommitBatchSize()) {
+                    commit();
+                }
+            }
+        }
+
+        synchronized void commit() {
+            if (isClosed() || !subscribed || processed == null || processed.equals(lastCommitted)) {
+                return;
+            }
+            String commitRequestId = UUID.randomUUID().toString();
+            try {
+                requestObserver.onNext(ManagedFetchRequest.newBuilder()
+                        .setCommitReplayIdRequest(CommitReplayRequest.newBuilder()
+                                .setCommitRequestId(commitRequestId)
+                                .setReplayId(processed))
+                        .build());
+            } catch (Exception e) {
+                log.warn(ERROR_COMMIT, developerName, e.getMessage());
+                return;
+            }
+            pendingCommits.put(commitRequestId, new PendingCommit(processed, processedCount, System.nanoTime()));
+            lastCommitted = processed;
+            committedCount = processedCount;
+        }
+
+        private synchronized void onCommitResponse(CommitReplayResponse response) {
+            PendingCommit commit = pendingCommits.get(response.getCommitRequestId());
+            if (commit == null) {
+                log.debug(LOG_UNKNOWN_COMMIT, response.getCommitRequestId(), developerName);
+                return;
+            }
+            // The response covers this commit and all older ones
+            Iterator<String> commitRequestIds = pendingCommits.keySet().iterator();
+            while (commitRequestIds.hasNext()) {
+                String commitRequestId = commitRequestIds.next();
+                commitRequestIds.remove();
+                if (commitRequestId.equals(response.getCommitRequestId())) {
+                    break;
+                }
+            }
+
+            if (response.hasError()) {
+                commitFailures.increment();
+                log.warn(LOG_COMMIT_FAILED, response.getCommitRequestId(), developerName,
+                        response.getError().getCode(), response.getError().getMsg());
+                // Commit the same position again on the next trigger
+                lastCommitted = null;
+                return;
+            }
+            commitLatency.record(System.nanoTime() - commit.sentAtNanos(), TimeUnit.NANOSECONDS);
+            acknowledgedCount = Math.max(acknowledgedCount, commit.processedCount());
+            lag.set(processedCount - acknowledgedCount);
+        }
+
+        private void stop() {
+            close();
+            activeSubscriptions.remove(this);
+            if (commitTask != null) {
+                commitTask.cancel(false);
+            }
+        }
+    }
+}
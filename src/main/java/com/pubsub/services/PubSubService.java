@@ -1,13 +1,17 @@
 package com.pubsub.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pubsub.config.PubSubConfiguration;
 import com.pubsub.exceptions.PublishException;
 import com.pubsub.exceptions.SchemaFetchException;
-import com.pubsub.utils.SalesforceSessionTokenService;
+import com.pubsub.utils.GrpcMetricsClientInterceptor;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.pubsub.utils.SessionRefreshClientInterceptor;
 import com.pubsub.utils.XClientTraceIdClientInterceptor;
 import com.salesforce.eventbus.protobuf.*;
 import io.grpc.*;
-import io.grpc.stub.AbstractStub;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,34 +19,52 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class PubSubService implements IPubSubService {
 
-    private final SalesforceSessionTokenService salesforceSessionTokenService;
+    private static final String OPERATION_GET_TOPIC = "getTopic";
+    private static final String OPERATION_GET_SCHEMA = "getSchema";
+    private static final int MAX_CREDENTIAL_STUBS = 16;
+
+    private final SalesforceCredentialManager credentialManager;
     private final PubSubConfiguration config;
-    private ManagedChannel managedChannel;
+    private final MeterRegistry meterRegistry;
+    private final GrpcTransport transport;
+    private final RetryEngine retryEngine;
+    // Shared by the stubs of all channels; the first is closest to the channel
+    private final List<ClientInterceptor> interceptors = new ArrayList<>();
+    private ChannelPool<ChannelStubs> channelPool;
 
     @PostConstruct
     private void initializeChannel() {
-        managedChannel = createManagedChannel();
+        PubSubConfiguration.GrpcConfig grpc = config.getGrpc();
+        if (grpc.isCallMetricsEnabled()) {
+            interceptors.add(new GrpcMetricsClientInterceptor(meterRegistry, grpc.getSlowCallThresholdMs()));
+        }
+        interceptors.add(new XClientTraceIdClientInterceptor());
+        interceptors.add(new SessionRefreshClientInterceptor(credentialManager));
+        channelPool = new ChannelPool<>(grpc.getChannelPoolSize(), grpc.getMaxStreamsPerChannel(), transport::newChannel,
+                channel -> new ChannelStubs(ClientInterceptors.intercept(channel, interceptors)),
+                grpc.isChannelMetricsEnabled() ? meterRegistry : null);
     }
 
     @Override
     public void checkSubscriptionStatus(String topicName, CallCredentials callCredentials) {
         CallCredentials credentials = Optional.ofNullable(callCredentials)
-                .orElseGet(salesforceSessionTokenService::login);
+                .orElseGet(credentialManager::getCredentials);
 
         try {
             TopicRequest request = TopicRequest.newBuilder().setTopicName(topicName).build();
-            TopicInfo topicInfo = pubSubBlockingStub(credentials).getTopic(request);
+            TopicInfo topicInfo = callWithReauthentication(credentials, stub -> stub.getTopic(request));
 
             if (topicInfo.getCanSubscribe()) {
                 log.info("Subscription available for topic: {} (RPC Id: {})", topicInfo.getTopicName(), topicInfo.getRpcId());
@@ -58,7 +80,7 @@ public class PubSubService implements IPubSubService {
     public String getSchemaJson(String schemaId, CallCredentials callCredentials) {
         try {
             SchemaRequest request = SchemaRequest.newBuilder().setSchemaId(schemaId).build();
-            return pubSubBlockingStub(callCredentials).getSchema(request).getSchemaJson();
+            return callWithReauthentication(callCredentials, stub -> stub.getSchema(request)).getSchemaJson();
         } catch (StatusRuntimeException e) {
             logError("Error fetching schema for schemaId: " + schemaId, e);
             throw new SchemaFetchException(
@@ -69,11 +91,14 @@ public class PubSubService implements IPubSubService {
         }
     }
 
+    /**
+     * Makes a single Publish call. Retries, including of the events the response reports as failed, are
+     * left to {@link Publish}, so that they do not hold the calling thread.
+     */
     @Override
-    @Retryable(retryFor = { StatusRuntimeException.class }, maxAttempts = 3, backoff = @Backoff(delay = 2000))
     public PublishResponse publish(PublishRequest publishRequest, CallCredentials callCredentials) {
         try {
-            return pubSubBlockingStub(callCredentials).publish(publishRequest);
+            return callWithReauthentication(callCredentials, stub -> stub.publish(publishRequest));
         } catch (StatusRuntimeException e) {
             logError("Error publishing message", e);
             throw new PublishException(
@@ -84,21 +109,28 @@ public class PubSubService implements IPubSubService {
         }
     }
 
+    /**
+     * Calls GetTopic on a virtual thread. Retries are scheduled, so no thread waits through the backoff.
+     */
     @Override
-    @Retryable(retryFor = { StatusRuntimeException.class }, maxAttempts = 3, backoff = @Backoff(delay = 2000))
-    public TopicInfo getTopicInfo(TopicRequest topicName, CallCredentials callCredentials) {
-        return pubSubBlockingStub(callCredentials).getTopic(topicName);
+    public CompletableFuture<TopicInfo> getTopicInfoAsync(TopicRequest topicName, CallCredentials callCredentials) {
+        return retryEngine.executeBlocking(OPERATION_GET_TOPIC,
+                () -> callWithReauthentication(callCredentials, stub -> stub.getTopic(topicName)));
     }
 
+    /**
+     * Calls GetSchema on a virtual thread. Retries are scheduled, so no thread waits through the backoff.
+     */
     @Override
-    @Retryable(retryFor = { StatusRuntimeException.class }, maxAttempts = 3, backoff = @Backoff(delay = 2000))
-    public SchemaInfo getSchemaInfo(String schemaId, CallCredentials callCredentials) {
-        return pubSubBlockingStub(callCredentials).getSchema(SchemaRequest.newBuilder().setSchemaId(schemaId).build());
+    public CompletableFuture<SchemaInfo> getSchemaInfoAsync(String schemaId, CallCredentials callCredentials) {
+        SchemaRequest request = SchemaRequest.newBuilder().setSchemaId(schemaId).build();
+        return retryEngine.executeBlocking(OPERATION_GET_SCHEMA,
+                () -> callWithReauthentication(callCredentials, stub -> stub.getSchema(request)));
     }
 
     @Scheduled(fixedRateString = "${pubsub.event-processing.channel-health-check-interval-ms}")
-    private void checkChannelState() {
-        log.info("Current channel status: {}", getOrCreateManagedChannel().getState(true));
+    void checkChannelState() {
+        log.info("Current channel status: {}, open streams: {}", channelPool.getStates(true), channelPool.getStreamCounts());
     }
 
     @Override
@@ -114,54 +146,81 @@ public class PubSubService implements IPubSubService {
 
     @Override
     public Boolean isChannelShutdown() {
-        return managedChannel != null && managedChannel.isShutdown();
+        return channelPool != null && channelPool.isShutdown();
     }
 
     @Override
     public PubSubGrpc.PubSubBlockingStub pubSubBlockingStub(CallCredentials callCredentials) {
-        return createStub(PubSubGrpc::newBlockingStub, callCredentials);
+        return channelPool.forUnary().blocking(callCredentials);
     }
 
+    /**
+     * Opens a long-lived stream on the async stub of the pooled channel carrying the fewest streams.
+     */
     @Override
-    public PubSubGrpc.PubSubStub pubSubAsyncStub(CallCredentials callCredentials) {
-        return createStub(PubSubGrpc::newStub, callCredentials);
-    }
-
-    private <T extends AbstractStub<T>> T createStub(Function<Channel, T> stubFactory, CallCredentials callCredentials) {
-        Channel interceptedChannel = ClientInterceptors.intercept(getOrCreateManagedChannel(), new XClientTraceIdClientInterceptor());
-        return stubFactory.apply(interceptedChannel).withCallCredentials(callCredentials);
+    public <T> T openStream(CallCredentials callCredentials, Function<PubSubGrpc.PubSubStub, T> open) {
+        return channelPool.openStream(stubs -> open.apply(stubs.async(callCredentials)));
     }
 
-    private ManagedChannel getOrCreateManagedChannel() {
-        if (managedChannel == null || managedChannel.isShutdown() || managedChannel.isTerminated()) {
-            managedChannel = createManagedChannel();
+    /**
+     * Runs a unary call and, if it was rejected with UNAUTHENTICATED while using the managed credentials,
+     * repeats it once after the session has been refreshed.
+     */
+    private <T> T callWithReauthentication(CallCredentials callCredentials, Function<PubSubGrpc.PubSubBlockingStub, T> call) {
+        try {
+            return call.apply(pubSubBlockingStub(callCredentials));
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.UNAUTHENTICATED
+                    || !credentialManager.isManaged(callCredentials)
+                    || !credentialManager.awaitRefresh()) {
+                throw e;
+            }
+            log.info("Retrying call with refreshed Salesforce session");
+            return call.apply(pubSubBlockingStub(callCredentials));
         }
-        return managedChannel;
-    }
-
-    private ManagedChannel createManagedChannel() {
-        return ManagedChannelBuilder
-                .forAddress(config.getGrpc().getHost(), config.getGrpc().getPort())
-                .idleTimeout(config.getGrpc().getChannelIdleTimeoutMinutes(), TimeUnit.MINUTES)
-                .build();
     }
 
     @PreDestroy
     public void cleanup() {
-        log.info("Shutting down gRPC channel");
-        if (managedChannel != null && !managedChannel.isShutdown()) {
+        log.info("Shutting down gRPC channels");
+        if (channelPool != null && !channelPool.isShutdown()) {
             try {
-                managedChannel.shutdown();
                 long timeoutSeconds = config.getGrpc().getShutdownTimeoutSeconds();
-                if (!managedChannel.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
-                    log.warn("Channel did not terminate gracefully after {} seconds, forcing shutdown", timeoutSeconds);
-                    managedChannel.shutdownNow();
+                if (!channelPool.shutdown(timeoutSeconds, TimeUnit.SECONDS)) {
+                    log.warn("Channels did not terminate gracefully after {} seconds, forced shutdown", timeoutSeconds);
                 }
             } catch (InterruptedException e) {
                 log.error("Channel shutdown interrupted", e);
-                managedChannel.shutdownNow();
+                channelPool.shutdownNow();
                 Thread.currentThread().interrupt();
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stubs of one pooled channel, built once and then reused per set of call credentials. Stubs are
+     * immutable, so they can be shared by concurrent calls.
+     */
+    private static final class ChannelStubs {
+        private final PubSubGrpc.PubSubBlockingStub blocking;
+        private final PubSubGrpc.PubSubStub async;
+        // A stub references its credentials, so weak keys would never be cleared; bound the caches instead
+        private final Cache<CallCredentials, PubSubGrpc.PubSubBlockingStub> blockingByCredentials =
+                Caffeine.newBuilder().maximumSize(MAX_CREDENTIAL_STUBS).build();
+        private final Cache<CallCredentials, PubSubGrpc.PubSubStub> asyncByCredentials =
+                Caffeine.newBuilder().maximumSize(MAX_CREDENTIAL_STUBS).build();
+
+        ChannelStubs(Channel interceptedChannel) {
+            this.blocking = PubSubGrpc.newBlockingStub(interceptedChannel);
+            this.async = PubSubGrpc.newStub(interceptedChannel);
+        }
+
+        PubSubGrpc.PubSubBlockingStub blocking(CallCredentials callCredentials) {
+            return callCredentials == null ? blocking : blockingByCredentials.get(callCredentials, blocking::withCallCredentials);
+        }
+
+        PubSubGrpc.PubSubStub async(CallCredentials callCredentials) {
+            return callCredentials == null ? async : asyncByCredentials.get(callCredentials, async::withCallCredentials);
+        }
+    }
+}
@@ -1,42 +1,99 @@
 package com.pubsub.services;
 
 import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.utils.AvroSerializer;
+import com.pubsub.utils.ExecutorFactory;
 import com.pubsub.utils.SalesforceSessionTokenService;
+import com.salesforce.eventbus.protobuf.ErrorCode;
 import com.salesforce.eventbus.protobuf.ProducerEvent;
 import com.salesforce.eventbus.protobuf.PublishRequest;
 import com.salesforce.eventbus.protobuf.PublishResponse;
+import com.salesforce.eventbus.protobuf.PublishResult;
 import com.salesforce.eventbus.protobuf.SchemaInfo;
 import io.grpc.CallCredentials;
+import jakarta.annotation.PreDestroy;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.avro.io.BinaryEncoder;
-import org.apache.avro.io.EncoderFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Data
 @Service
-@RequiredArgsConstructor
 public class Publish {
     private static final String LOG_PUBLISH_SUCCESS = "Published {} events to topic {} with RPC ID: {}";
     private static final String LOG_PUBLISH_FAILURE = "Failed to publish event to topic {}: {}";
+    private static final String LOG_RETRY_FAILED = "Retry of {} failed events for topic {} failed: {}";
+    private static final String OPERATION_PUBLISH = "publish";
 
     private final IPubSubService pubSubService;
     private final TopicSchema topicSchema;
     private final SalesforceSessionTokenService salesforceSessionTokenService;
+    private final StreamingPublisher streamingPublisher;
+    private final AvroSerializer avroSerializer;
+    private final PubSubConfiguration config;
+    private final RetryEngine retryEngine;
+    private final PubSubMetrics metrics;
+    private final ExecutorService unaryExecutor;
 
+    public Publish(IPubSubService pubSubService, TopicSchema topicSchema,
+                   SalesforceSessionTokenService salesforceSessionTokenService, StreamingPublisher streamingPublisher,
+                   AvroSerializer avroSerializer, PubSubConfiguration config, RetryEngine retryEngine,
+                   PubSubMetrics metrics) {
+        this.pubSubService = pubSubService;
+        this.topicSchema = topicSchema;
+        this.salesforceSessionTokenService = salesforceSessionTokenService;
+        this.streamingPublisher = streamingPublisher;
+        this.avroSerializer = avroSerializer;
+        this.config = config;
+        this.retryEngine = retryEngine;
+        this.metrics = metrics;
+        PubSubConfiguration.PublishConfig publishConfig = config.getPublish();
+        this.unaryExecutor = ExecutorFactory.newExecutor(publishConfig.getExecutionMode(),
+                publishConfig.getBatchSenderThreads(), "publish-unary-");
+    }
 
+    /**
+     * Publishes a single event and waits for its response.
+     *
+     * Uses the unary Publish RPC, or the shared publish stream when {@code pubsub.publish.mode=STREAM}.
+     * Unary attempts run on the threads selected by {@code pubsub.publish.execution-mode}, so the caller
+     * only waits and no thread sleeps through a backoff.
+     */
     public PublishResponse publishEvent(final String busTopicName, final GenericRecord event, final CallCredentials callCredentials) throws Exception {
+        if (config.getPublish().getMode() == PubSubConfiguration.PublishMode.STREAM) {
+            try {
+                return publishEventAsync(busTopicName, event, callCredentials).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+
         try {
             SchemaInfo schemaInfo = topicSchema.getSchemaInfo(busTopicName, callCredentials);
             PublishRequest publishRequest = generatePublishRequest(busTopicName, schemaInfo, event);
-            PublishResponse publishResponse = pubSubService.publish(publishRequest, callCredentials);
+            PublishResponse publishResponse;
+            try {
+                publishResponse = publishWithRetries(publishRequest,
+                        request -> unaryAttempt(request, callCredentials, unaryExecutor)).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
 
             log.info(LOG_PUBLISH_SUCCESS, publishResponse.getResultsCount(), busTopicName, publishResponse.getRpcId());
             return publishResponse;
@@ -46,6 +103,99 @@ public class Publish {
         }
     }
 
+    /**
+     * Publishes a single event on the topic's publish stream without waiting for the response,
+     * so that a single thread can keep several requests in flight.
+     */
+    public CompletableFuture<PublishResponse> publishEventAsync(final String busTopicName, final GenericRecord event, final CallCredentials callCredentials) {
+        try {
+            SchemaInfo schemaInfo = topicSchema.getSchemaInfo(busTopicName, callCredentials);
+            PublishRequest publishRequest = generatePublishRequest(busTopicName, schemaInfo, event);
+            return publishWithRetries(publishRequest, request -> streamingPublisher.publish(request, callCredentials))
+                    .whenComplete((publishResponse, e) -> {
+                        if (e != null) {
+                            log.error(LOG_PUBLISH_FAILURE, busTopicName, e.getMessage(), e);
+                        } else {
+                            log.info(LOG_PUBLISH_SUCCESS, publishResponse.getResultsCount(), busTopicName, publishResponse.getRpcId());
+                        }
+                    });
+        } catch (Exception e) {
+            log.error(LOG_PUBLISH_FAILURE, busTopicName, e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends an already encoded request without blocking the caller, using the transport selected by
+     * {@code pubsub.publish.mode}. Unary calls, including retries, run on the given executor.
+     */
+    public CompletableFuture<PublishResponse> publishRequestAsync(final PublishRequest publishRequest, final CallCredentials callCredentials, final Executor unaryExecutor) {
+        if (config.getPublish().getMode() == PubSubConfiguration.PublishMode.STREAM) {
+            return publishWithRetries(publishRequest, request -> streamingPublisher.publish(request, callCredentials));
+        }
+        return publishWithRetries(publishRequest, request -> unaryAttempt(request, callCredentials, unaryExecutor));
+    }
+
+    private CompletableFuture<PublishResponse> unaryAttempt(PublishRequest request, CallCredentials callCredentials, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> pubSubService.publish(request, callCredentials), executor);
+    }
+
+    /**
+     * Sends the request through the retry engine, then retries only the events whose result carries an error
+     * listed in {@code pubsub.retry.retryable-error-codes}, matched to their ProducerEvent through the
+     * correlation key. The response holds the latest result of
+     * every event.
+     */
+    CompletableFuture<PublishResponse> publishWithRetries(PublishRequest request,
+                                                          Function<PublishRequest, CompletableFuture<PublishResponse>> send) {
+        PubSubMetrics.TopicMeters meters = metrics.topic(request.getTopicName());
+        meters.onPublishBatch(request.getEventsCount());
+        return retryEngine.execute(OPERATION_PUBLISH, () -> send.apply(request))
+                .thenCompose(response -> retryFailedEvents(request, response, send, 1))
+                .whenComplete((response, e) -> {
+                    int succeeded = e != null ? 0 : (int) response.getResultsList().stream().filter(result -> !result.hasError()).count();
+                    meters.onPublished(succeeded, request.getEventsCount() - succeeded);
+                });
+    }
+
+    private CompletableFuture<PublishResponse> retryFailedEvents(PublishRequest request, PublishResponse response,
+                                                                 Function<PublishRequest, CompletableFuture<PublishResponse>> send,
+                                                                 int attempt) {
+        Set<ErrorCode> retryable = config.getRetry().getRetryableErrorCodes();
+        Set<String> failedKeys = response.getResultsList().stream()
+                .filter(result -> result.hasError() && retryable.contains(result.getError().getCode()))
+                .map(PublishResult::getCorrelationKey)
+                .collect(Collectors.toSet());
+        List<ProducerEvent> failedEvents = request.getEventsList().stream()
+                .filter(producerEvent -> failedKeys.contains(producerEvent.getId()))
+                .toList();
+        if (failedEvents.isEmpty()) {
+            return CompletableFuture.completedFuture(response);
+        }
+        PublishRequest retryRequest = request.toBuilder().clearEvents().addAllEvents(failedEvents).build();
+        return retryEngine.retryPartial(OPERATION_PUBLISH, attempt, () -> send.apply(retryRequest))
+                .map(retried -> retried
+                        .thenCompose(retryResponse -> retryFailedEvents(retryRequest, retryResponse, send, attempt + 1))
+                        .handle((retryResponse, e) -> {
+                            if (e != null) {
+                                log.warn(LOG_RETRY_FAILED, failedEvents.size(), request.getTopicName(), e.getMessage());
+                                return response;
+                            }
+                            return merge(response, retryResponse);
+                        }))
+                .orElseGet(() -> CompletableFuture.completedFuture(response));
+    }
+
+    private static PublishResponse merge(PublishResponse response, PublishResponse retryResponse) {
+        Map<String, PublishResult> retried = retryResponse.getResultsList().stream()
+                .collect(Collectors.toMap(PublishResult::getCorrelationKey, Function.identity(), (first, second) -> second));
+        PublishResponse.Builder merged = response.toBuilder().clearResults().setRpcId(retryResponse.getRpcId());
+        for (PublishResult result : response.getResultsList()) {
+            merged.addResults(retried.getOrDefault(result.getCorrelationKey(), result));
+        }
+        return merged.build();
+    }
+
     private PublishRequest generatePublishRequest(final String busTopicName, final SchemaInfo schemaInfo, final GenericRecord event) throws IOException {
         ProducerEvent producerEvent = generateProducerEvent(schemaInfo, event);
         return PublishRequest.newBuilder()
@@ -54,20 +204,19 @@ public class Publish {
                 .build();
     }
 
-    private ProducerEvent generateProducerEvent(final SchemaInfo schemaInfo, final GenericRecord event) throws IOException {
-        byte[] payload = convertToByteArray(event);
+    ProducerEvent generateProducerEvent(final SchemaInfo schemaInfo, final GenericRecord event) throws IOException {
+        long encodeStart = System.nanoTime();
+        ByteString payload = avroSerializer.serialize(event);
+        metrics.avroEncode().record(System.nanoTime() - encodeStart, TimeUnit.NANOSECONDS);
         return ProducerEvent.newBuilder()
+                .setId(UUID.randomUUID().toString())
                 .setSchemaId(schemaInfo.getSchemaId())
-                .setPayload(ByteString.copyFrom(payload))
+                .setPayload(payload)
                 .build();
     }
 
-    private byte[] convertToByteArray(final GenericRecord event) throws IOException {
-        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-            GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(event.getSchema());
-            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(buffer, null);
-            writer.write(event, encoder);
-            return buffer.toByteArray();
-        }
+    @PreDestroy
+    public void shutdown() {
+        unaryExecutor.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.PublishException;
+import com.pubsub.utils.ExecutorFactory;
+import com.pubsub.utils.TopicConcurrencyLimiter;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+import com.salesforce.eventbus.protobuf.PublishRequest;
+import com.salesforce.eventbus.protobuf.PublishResponse;
+import com.salesforce.eventbus.protobuf.PublishResult;
+import com.salesforce.eventbus.protobuf.SchemaInfo;
+import io.grpc.CallCredentials;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.generic.GenericRecord;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulates events per topic and publishes them in batches, similar to a Kafka producer.
+ *
+ * Events are batched per topic and call credentials, so that every event is published under the session
+ * of the caller that added it. A batch is sent when it reaches {@code pubsub.publish.batch-max-events} events or
+ * {@code pubsub.publish.batch-max-bytes} bytes, or when {@code pubsub.publish.batch-linger-ms} has passed
+ * since its first event. Each caller receives a future for the PublishResult of its own event, matched
+ * through the event's correlation key. A result carrying an {@code error} still completes the future
+ * normally; the future only fails when the whole batch could not be published.
+ *
+ * Unary calls run on platform or virtual threads according to {@code pubsub.publish.execution-mode},
+ * with at most {@code pubsub.publish.max-concurrent-per-topic} in flight per topic.
+ */
+@Slf4j
+@Service
+public class PublishAccumulator {
+
+    private static final String LOG_BATCH_SENT = "Published batch of {} events ({} bytes) to topic {} with RPC ID: {}";
+    private static final String LOG_BATCH_FAILED = "Failed to publish batch of {} events to topic {}: {}";
+
+    private final Publish publish;
+    private final TopicSchema topicSchema;
+    private final PubSubConfiguration.PublishConfig publishConfig;
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService lingerScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "publish-linger");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senderExecutor;
+    private final TopicConcurrencyLimiter concurrencyLimiter;
+
+    public PublishAccumulator(Publish publish, TopicSchema topicSchema, PubSubConfiguration config) {
+        this.publish = publish;
+        this.topicSchema = topicSchema;
+        this.publishConfig = config.getPublish();
+        this.senderExecutor = ExecutorFactory.newExecutor(publishConfig.getExecutionMode(), publishConfig.getBatchSenderThreads(), "publish-sender-");
+        this.concurrencyLimiter = new TopicConcurrencyLimiter(publishConfig.getMaxConcurrentPerTopic());
+    }
+
+    /**
+     * Adds an event to the current batch of its topic and credentials.
+     *
+     * @return future completed with the PublishResult of this event once its batch has been published
+     */
+    public CompletableFuture<PublishResult> add(String topic, GenericRecord event, CallCredentials callCredentials) {
+        ProducerEvent producerEvent;
+        try {
+            SchemaInfo schemaInfo = topicSchema.getSchemaInfo(topic, callCredentials);
+            producerEvent = publish.generateProducerEvent(schemaInfo, event);
+        } catch (Exception e) {
+            log.error("Failed to encode event for topic {}: {}", topic, e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<PublishResult> result = new CompletableFuture<>();
+        List<Batch> ready = new ArrayList<>(2);
+        batches.compute(new BatchKey(topic, callCredentials), (key, batch) -> {
+            if (batch != null && !batch.hasRoomFor(producerEvent)) {
+                ready.add(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(key);
+                scheduleLinger(batch);
+            }
+            batch.append(producerEvent, result);
+            if (batch.isFull()) {
+                ready.add(batch);
+                return null;
+            }
+            return batch;
+        });
+        ready.forEach(this::send);
+        return result;
+    }
+
+    /**
+     * Sends all partially filled batches immediately.
+     */
+    public void flush() {
+        batches.keySet().forEach(key -> {
+            Batch batch = batches.remove(key);
+            if (batch != null) {
+                send(batch);
+            }
+        });
+    }
+
+    private void scheduleLinger(Batch batch) {
+        batch.lingerTask = lingerScheduler.schedule(() -> {
+            if (batches.remove(batch.key, batch)) {
+                send(batch);
+            }
+        }, publishConfig.getBatchLingerMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private void send(Batch batch) {
+        if (batch.lingerTask != null) {
+            batch.lingerTask.cancel(false);
+        }
+        PublishRequest request = PublishRequest.newBuilder()
+                .setTopicName(batch.topic)
+                .addAllEvents(batch.events)
+                .build();
+
+        publish.publishRequestAsync(request, batch.callCredentials, concurrencyLimiter.forTopic(batch.topic, senderExecutor))
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.error(LOG_BATCH_FAILED, batch.events.size(), batch.topic, e.getMessage(), e);
+                        batch.results.values().forEach(future -> future.completeExceptionally(e));
+                    } else {
+                        log.debug(LOG_BATCH_SENT, batch.events.size(), batch.bytes, batch.topic, response.getRpcId());
+                        completeResults(batch, response);
+                    }
+                });
+    }
+
+    private void completeResults(Batch batch, PublishResponse response) {
+        for (PublishResult publishResult : response.getResultsList()) {
+            CompletableFuture<PublishResult> future = batch.results.remove(publishResult.getCorrelationKey());
+            if (future != null) {
+                future.complete(publishResult);
+            }
+        }
+        batch.results.forEach((correlationKey, future) -> future.completeExceptionally(new PublishException(
+                "No publish result returned for event " + correlationKey, "PUBLISH_NO_RESULT")));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        lingerScheduler.shutdown();
+        senderExecutor.shutdown();
+        try {
+            if (!senderExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                senderExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            log.error("Publish accumulator shutdown interrupted: {}", e.getMessage(), e);
+            senderExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record BatchKey(String topic, CallCredentials callCredentials) {
+    }
+
+    private class Batch {
+        private final BatchKey key;
+        private final String topic;
+        private final CallCredentials callCredentials;
+        private final List<ProducerEvent> events = new ArrayList<>();
+        private final Map<String, CompletableFuture<PublishResult>> results = new LinkedHashMap<>();
+        private int bytes;
+        private ScheduledFuture<?> lingerTask;
+
+        Batch(BatchKey key) {
+            this.key = key;
+            this.topic = key.topic();
+            this.callCredentials = key.callCredentials();
+        }
+
+        boolean hasRoomFor(ProducerEvent event) {
+            return events.isEmpty() || bytes + event.getSerializedSize() <= publishConfig.getBatchMaxBytes();
+        }
+
+        void append(ProducerEvent event, CompletableFuture<PublishResult> result) {
+            events.add(event);
+            results.put(event.getId(), result);
+            bytes += event.getSerializedSize();
+        }
+
+        boolean isFull() {
+            return events.size() >= publishConfig.getBatchMaxEvents() || bytes >= publishConfig.getBatchMaxBytes();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pubsub.services;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Limits retries to a percentage of the calls made over a sliding window, plus a fixed allowance per second.
+ *
+ * Calls and retries are counted in one bucket per second; buckets older than the window are reused.
+ */
+final class RetryBudget {
+
+    private final int percent;
+    private final int minRetriesPerSecond;
+    private final LongSupplier clockMillis;
+
+    // Guarded by this
+    private final long[] bucketSeconds;
+    private final long[] calls;
+    private final long[] retries;
+
+    RetryBudget(int percent, int minRetriesPerSecond, int windowSeconds, LongSupplier clockMillis) {
+        this.percent = percent;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.clockMillis = clockMillis;
+        this.bucketSeconds = new long[windowSeconds];
+        this.calls = new long[windowSeconds];
+        this.retries = new long[windowSeconds];
+    }
+
+    /**
+     * Records a call, which adds {@code percent} of a retry to the budget.
+     */
+    synchronized void onCall() {
+        calls[bucket()]++;
+    }
+
+    /**
+     * Takes a retry out of the budget if one is left.
+     *
+     * @return whether the retry may be made
+     */
+    synchronized boolean tryAcquire() {
+        int current = bucket();
+        long second = bucketSeconds[current];
+        long windowCalls = 0;
+        long windowRetries = 0;
+        for (int i = 0; i < bucketSeconds.length; i++) {
+            if (second - bucketSeconds[i] < bucketSeconds.length) {
+                windowCalls += calls[i];
+                windowRetries += retries[i];
+            }
+        }
+        long allowed = (long) minRetriesPerSecond * bucketSeconds.length + windowCalls * percent / 100;
+        if (windowRetries >= allowed) {
+            return false;
+        }
+        retries[current]++;
+        return true;
+    }
+
+    private int bucket() {
+        long second = clockMillis.getAsLong() / 1000;
+        int index = (int) Math.floorMod(second, (long) bucketSeconds.length);
+        if (bucketSeconds[index] != second) {
+            bucketSeconds[index] = second;
+            calls[index] = 0;
+            retries[index] = 0;
+        }
+        return index;
+    }
+}
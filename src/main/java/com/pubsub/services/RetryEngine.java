@@ -0,0 +1,182 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed calls without blocking a thread through the backoff.
+ *
+ * A call whose failure has a status in {@code pubsub.retry.retryable-status-codes} is attempted again, up to
+ * {@code pubsub.retry.max-attempts} times, after an exponential backoff with equal jitter. Retries are
+ * scheduled on one shared timer thread and then run the attempt again, so a thread is only busy while an
+ * attempt actually runs. Every retry has to be covered by the {@link RetryBudget} shared by all operations;
+ * once it is spent, failures are returned to the caller instead of being retried. Cancelling the returned
+ * future cancels the pending retry.
+ */
+@Slf4j
+@Component
+public class RetryEngine {
+
+    private static final String LOG_RETRY_SCHEDULED = "Retrying {} in {} ms after attempt {} failed ({})";
+    private static final String LOG_BUDGET_EXHAUSTED = "Retry budget exhausted, not retrying {} after attempt {} ({})";
+    private static final String METRIC_RETRIES = "pubsub.retry.attempts";
+    private static final String METRIC_BUDGET_EXHAUSTED = "pubsub.retry.budget.exhausted";
+    private static final String TAG_OPERATION = "operation";
+    private static final String REASON_PARTIAL = "partial failure";
+
+    private final PubSubConfiguration.RetryConfig retry;
+    private final RetryBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "retry-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Blocking attempts retried on behalf of callers that supplied no executor
+    private final ExecutorService blockingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RetryEngine(PubSubConfiguration config, MeterRegistry meterRegistry) {
+        this.retry = config.getRetry();
+        this.budget = new RetryBudget(retry.getBudgetPercent(), retry.getBudgetMinRetriesPerSecond(),
+                retry.getBudgetWindowSeconds(), System::currentTimeMillis);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs an asynchronous call, retrying it when the future it returns fails with a retryable status.
+     *
+     * @param operation name used in logs and metric tags
+     * @param attempt   starts one attempt; called again for every retry
+     * @return completes with the first successful attempt, or with the failure of the last one
+     */
+    public <T> CompletableFuture<T> execute(String operation, Supplier<CompletableFuture<T>> attempt) {
+        budget.onCall();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        run(operation, attempt, 1, result);
+        return result;
+    }
+
+    /**
+     * Runs a blocking call on a virtual thread, retrying it on retryable failures. No thread waits through
+     * the backoff.
+     */
+    public <T> CompletableFuture<T> executeBlocking(String operation, Supplier<T> call) {
+        return execute(operation, () -> CompletableFuture.supplyAsync(call, blockingExecutor));
+    }
+
+    /**
+     * Retries the part of a call that failed although the call itself succeeded, such as the events of a
+     * publish batch that were rejected, if attempts and budget are left.
+     *
+     * @param failedAttempt number of the attempt that partially failed, starting at 1
+     * @param attempt       starts an attempt for the failed part only
+     * @return the outcome of the retry, or empty if no retry is made
+     */
+    public <T> Optional<CompletableFuture<T>> retryPartial(String operation, int failedAttempt,
+                                                           Supplier<CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!scheduleRetry(operation, failedAttempt, null, result, () -> run(operation, attempt, failedAttempt + 1, result))) {
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * @return executor for blocking attempts of callers that have no executor of their own
+     */
+    public Executor blockingExecutor() {
+        return blockingExecutor;
+    }
+
+    /**
+     * @return whether a failure with the status of the given exception, or of one of its causes, is retried
+     */
+    public boolean isRetryable(Throwable t) {
+        return retry.getRetryableStatusCodes().contains(Status.fromThrowable(t).getCode());
+    }
+
+    /**
+     * Backoff before the retry following the given failed attempt, before jitter.
+     */
+    long backoffMs(int failedAttempt) {
+        int exponent = Math.min(failedAttempt - 1, 30);
+        return Math.min(retry.getMaxBackoffMs(), retry.getInitialBackoffMs() << exponent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        blockingExecutor.shutdownNow();
+    }
+
+    private <T> void run(String operation, Supplier<CompletableFuture<T>> attempt, int number, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            // Cancelled by the caller
+            return;
+        }
+        CompletableFuture<T> outcome;
+        try {
+            outcome = attempt.get();
+        } catch (RuntimeException e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        outcome.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            if (!scheduleRetry(operation, number, cause, result, () -> run(operation, attempt, number + 1, result))) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * @param failure failure of the attempt, or {@code null} for a partial failure the caller found retryable
+     * @param result  outcome of the call; completing or cancelling it cancels the retry
+     * @return whether the retry was scheduled
+     */
+    private boolean scheduleRetry(String operation, int failedAttempt, Throwable failure, CompletableFuture<?> result,
+                                  Runnable retryAction) {
+        if (failedAttempt >= retry.getMaxAttempts() || (failure != null && !isRetryable(failure))) {
+            return false;
+        }
+        Object reason = failure == null ? REASON_PARTIAL : Status.fromThrowable(failure).getCode();
+        if (!budget.tryAcquire()) {
+            meterRegistry.counter(METRIC_BUDGET_EXHAUSTED, TAG_OPERATION, operation).increment();
+            log.warn(LOG_BUDGET_EXHAUSTED, operation, failedAttempt, reason);
+            return false;
+        }
+        long backoff = backoffMs(failedAttempt);
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        ScheduledFuture<?> scheduled;
+        try {
+            scheduled = scheduler.schedule(retryAction, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return false;
+        }
+        result.whenComplete((value, t) -> scheduled.cancel(false));
+        meterRegistry.counter(METRIC_RETRIES, TAG_OPERATION, operation).increment();
+        log.warn(LOG_RETRY_SCHEDULED, operation, delay, failedAttempt, reason);
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package com.pubsub.services;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.SchemaFetchException;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.SchemaInfo;
+import com.salesforce.eventbus.protobuf.TopicInfo;
+import com.salesforce.eventbus.protobuf.TopicRequest;
+import io.grpc.CallCredentials;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared cache of topic and schema metadata for publishers and subscribers.
+ *
+ * Topics are cached by name and reloaded in the background once they are older than
+ * {@code pubsub.schema.cache-refresh-minutes}, while the stale entry keeps being served, so a changed
+ * event definition is picked up without putting GetTopic on the publish path. Schemas are cached by
+ * schema ID together with their parsed Avro form; a schema ID is a fingerprint of its schema, so those
+ * entries never need refreshing and only expire when unused. Concurrent misses for the same key share
+ * one load. Loads are asynchronous GetTopic and GetSchema calls whose retries are scheduled, so neither the
+ * refresh threads nor the callers of the {@code Async} methods wait through a backoff; the other getters
+ * wait for the outcome. Both caches report their hits, misses and loads under {@code cache.*}, tagged
+ * {@code cache=pubsub.schema.topics} and {@code cache=pubsub.schema.schemas}.
+ */
+@Slf4j
+@Service
+public class SchemaRegistry {
+
+    private static final String LOG_TOPIC_RPC_ID = "GetTopic Call RPC ID: {}";
+    private static final String LOG_SCHEMA_RPC_ID = "GetSchema Call RPC ID: {}";
+    private static final String CACHE_TOPICS = "pubsub.schema.topics";
+    private static final String CACHE_SCHEMAS = "pubsub.schema.schemas";
+    private static final String ERROR_INTERRUPTED = "Interrupted while waiting for topic or schema metadata";
+    private static final String ERROR_CODE_INTERRUPTED = "SCHEMA_FETCH_INTERRUPTED";
+
+    private final IPubSubService pubSubService;
+    private final SalesforceCredentialManager credentialManager;
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2,
+            Thread.ofPlatform().name("schema-refresh-", 1).daemon(true).factory());
+    private final AsyncLoadingCache<String, TopicInfo> topics;
+    private final AsyncLoadingCache<String, RegisteredSchema> schemas;
+
+    public SchemaRegistry(IPubSubService pubSubService, SalesforceCredentialManager credentialManager, PubSubConfiguration config,
+                          PubSubMetrics metrics) {
+        this.pubSubService = pubSubService;
+        this.credentialManager = credentialManager;
+
+        PubSubConfiguration.SchemaConfig schemaConfig = config.getSchema();
+        Duration ttl = Duration.ofMinutes(schemaConfig.getCacheTtlMinutes());
+        this.topics = Caffeine.newBuilder()
+                .maximumSize(schemaConfig.getCacheMaxEntries())
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(Duration.ofMinutes(schemaConfig.getCacheRefreshMinutes()))
+                .executor(refreshExecutor)
+                .recordStats()
+                .buildAsync((topic, executor) -> loadTopic(topic, credentialManager.getCredentials()));
+        this.schemas = Caffeine.newBuilder()
+                .maximumSize(schemaConfig.getCacheMaxEntries())
+                .expireAfterAccess(ttl)
+                .executor(refreshExecutor)
+                .recordStats()
+                .buildAsync((schemaId, executor) -> loadSchema(schemaId, credentialManager.getCredentials()));
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), topics, CACHE_TOPICS);
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), schemas, CACHE_SCHEMAS);
+    }
+
+    /**
+     * @return topic metadata, loaded with the given credentials on a cache miss
+     */
+    public TopicInfo getTopic(String topicName, CallCredentials callCredentials) {
+        return await(getTopicAsync(topicName, callCredentials));
+    }
+
+    public CompletableFuture<TopicInfo> getTopicAsync(String topicName, CallCredentials callCredentials) {
+        return topics.get(topicName, (key, executor) -> loadTopic(key, callCredentials));
+    }
+
+    /**
+     * @return schema and its parsed Avro form, loaded with the given credentials on a cache miss
+     */
+    public RegisteredSchema getSchemaById(String schemaId, CallCredentials callCredentials) {
+        return await(getSchemaByIdAsync(schemaId, callCredentials));
+    }
+
+    public CompletableFuture<RegisteredSchema> getSchemaByIdAsync(String schemaId, CallCredentials callCredentials) {
+        return schemas.get(schemaId, (key, executor) -> loadSchema(key, callCredentials));
+    }
+
+    /**
+     * @return current schema of the topic
+     */
+    public RegisteredSchema getTopicSchema(String topicName, CallCredentials callCredentials) {
+        return await(getTopicSchemaAsync(topicName, callCredentials));
+    }
+
+    public CompletableFuture<RegisteredSchema> getTopicSchemaAsync(String topicName, CallCredentials callCredentials) {
+        return getTopicAsync(topicName, callCredentials)
+                .thenCompose(topic -> getSchemaByIdAsync(topic.getSchemaId(), callCredentials));
+    }
+
+    /**
+     * Drops the cached topic so its schema ID is looked up again on next use.
+     */
+    public void invalidateTopic(String topicName) {
+        topics.synchronous().invalidate(topicName);
+    }
+
+    @Scheduled(fixedRateString = "${pubsub.schema.cache-cleanup-interval-ms}")
+    public void cleanUp() {
+        topics.synchronous().cleanUp();
+        schemas.synchronous().cleanUp();
+    }
+
+    private CompletableFuture<TopicInfo> loadTopic(String topicName, CallCredentials callCredentials) {
+        return pubSubService.getTopicInfoAsync(TopicRequest.newBuilder().setTopicName(topicName).build(), callCredentials)
+                .whenComplete((topicInfo, e) -> {
+                    if (e != null) {
+                        log.error("Failed to fetch topic info for topic: {}", topicName, e);
+                    } else {
+                        log.info(LOG_TOPIC_RPC_ID, topicInfo.getRpcId());
+                    }
+                });
+    }
+
+    private CompletableFuture<RegisteredSchema> loadSchema(String schemaId, CallCredentials callCredentials) {
+        return pubSubService.getSchemaInfoAsync(schemaId, callCredentials)
+                .thenApply(schemaInfo -> {
+                    log.info(LOG_SCHEMA_RPC_ID, schemaInfo.getRpcId());
+                    return new RegisteredSchema(schemaInfo, new Schema.Parser().parse(schemaInfo.getSchemaJson()));
+                })
+                .whenComplete((schema, e) -> {
+                    if (e != null) {
+                        log.error("Failed to fetch schema info for schema ID: {}", schemaId, e);
+                    }
+                });
+    }
+
+    /**
+     * Waits for a load that may be shared with other callers, so it is never cancelled here.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new SchemaFetchException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SchemaFetchException(ERROR_INTERRUPTED, ERROR_CODE_INTERRUPTED, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Schema as returned by GetSchema together with its parsed Avro form.
+     */
+    public record RegisteredSchema(SchemaInfo schemaInfo, Schema schema) {
+
+        public String schemaId() {
+            return schemaInfo.getSchemaId();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.PublishException;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+import com.salesforce.eventbus.protobuf.PublishRequest;
+import com.salesforce.eventbus.protobuf.PublishResponse;
+import io.grpc.CallCredentials;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes over long-lived {@code PublishStream} calls instead of one unary {@code Publish} call per request.
+ *
+ * One stream is kept open per topic and several PublishRequests are written to it without waiting for the
+ * previous response. Each PublishResponse is matched back to its request through the {@code correlation_key}
+ * of its results, which the server sets to the {@code id} of the corresponding ProducerEvent.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingPublisher {
+
+    private static final String LOG_STREAM_OPENED = "Opened publish stream for topic {}";
+    private static final String LOG_STREAM_CLOSED = "Publish stream for topic {} closed with {} requests in flight";
+    private static final String LOG_UNMATCHED_RESPONSE = "Received publish response for topic {} with unknown correlation key {} (RPC ID: {})";
+
+    private final IPubSubService pubSubService;
+    private final PubSubConfiguration config;
+    private final Map<String, PublishStreamSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Sends a request on the publish stream of its topic, opening the stream if needed.
+     *
+     * Blocks only while the stream already has the maximum number of requests in flight.
+     *
+     * @param publishRequest  request to send; events without an {@code id} are assigned one
+     * @param callCredentials credentials used if a new stream has to be opened
+     * @return future completed with the matching PublishResponse, or exceptionally if the stream fails
+     */
+    public CompletableFuture<PublishResponse> publish(PublishRequest publishRequest, CallCredentials callCredentials) {
+        PublishRequest request = ensureCorrelationKeys(publishRequest);
+        PublishStreamSession session = sessions.compute(request.getTopicName(),
+                (topic, existing) -> existing != null && existing.isOpen() ? existing : openSession(topic, callCredentials));
+        return session.send(request);
+    }
+
+    /**
+     * @return number of requests awaiting a response on the given topic's publish stream
+     */
+    public int inFlight(String topic) {
+        PublishStreamSession session = sessions.get(topic);
+        return session == null ? 0 : session.pending.size();
+    }
+
+    private PublishStreamSession openSession(String topic, CallCredentials callCredentials) {
+        PublishStreamSession session = new PublishStreamSession(topic, config.getPublish().getStreamMaxInFlight());
+        session.requestObserver = pubSubService.openStream(callCredentials, stub -> stub.publishStream(session));
+        log.info(LOG_STREAM_OPENED, topic);
+        return session;
+    }
+
+    private PublishRequest ensureCorrelationKeys(PublishRequest request) {
+        if (request.getEventsList().stream().allMatch(event -> !event.getId().isEmpty())) {
+            return request;
+        }
+        PublishRequest.Builder builder = request.toBuilder();
+        for (ProducerEvent.Builder event : builder.getEventsBuilderList()) {
+            if (event.getId().isEmpty()) {
+                event.setId(UUID.randomUUID().toString());
+            }
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sessions.values().forEach(PublishStreamSession::close);
+        sessions.clear();
+    }
+
+    private class PublishStreamSession implements StreamObserver<PublishResponse> {
+        private final String topic;
+        private final Semaphore inFlight;
+        private final Map<String, CompletableFuture<PublishResponse>> pending = new ConcurrentHashMap<>();
+        private StreamObserver<PublishRequest> requestObserver;
+        private volatile boolean open = true;
+
+        PublishStreamSession(String topic, int maxInFlight) {
+            this.topic = topic;
+            this.inFlight = new Semaphore(maxInFlight);
+        }
+
+        boolean isOpen() {
+            return open;
+        }
+
+        CompletableFuture<PublishResponse> send(PublishRequest request) {
+            CompletableFuture<PublishResponse> future = new CompletableFuture<>();
+            if (request.getEventsCount() == 0) {
+                return CompletableFuture.failedFuture(new PublishException("Publish request has no events", "PUBLISH_ERROR"));
+            }
+            if (!acquireSlot()) {
+                return CompletableFuture.failedFuture(new PublishException(
+                        "Timed out waiting for a free slot on the publish stream for topic " + topic, "PUBLISH_STREAM_BACKPRESSURE"));
+            }
+
+            String correlationKey = request.getEvents(0).getId();
+            pending.put(correlationKey, future);
+            try {
+                // Outbound StreamObservers are not thread-safe
+                synchronized (this) {
+                    if (!open) {
+                        throw new IllegalStateException("Publish stream is closed");
+                    }
+                    requestObserver.onNext(request);
+                }
+            } catch (Exception e) {
+                complete(correlationKey)
+                        .ifPresent(f -> f.completeExceptionally(new PublishException("Failed to write to publish stream", "PUBLISH_STREAM_ERROR", e)));
+            }
+            return future;
+        }
+
+        private boolean acquireSlot() {
+            try {
+                return inFlight.tryAcquire(config.getPublish().getStreamAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private Optional<CompletableFuture<PublishResponse>> complete(String correlationKey) {
+            CompletableFuture<PublishResponse> future = pending.remove(correlationKey);
+            if (future != null) {
+                inFlight.release();
+            }
+            return Optional.ofNullable(future);
+        }
+
+        @Override
+        public void onNext(PublishResponse response) {
+            String correlationKey = response.getResultsCount() > 0 ? response.getResults(0).getCorrelationKey() : "";
+            complete(correlationKey).ifPresentOrElse(
+                    future -> future.complete(response),
+                    () -> log.warn(LOG_UNMATCHED_RESPONSE, topic, correlationKey, response.getRpcId()));
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            pubSubService.logError("Publish stream failed for topic: " + topic, t instanceof Exception e ? e : new RuntimeException(t));
+            terminate(new PublishException("Publish stream failed for topic " + topic, "PUBLISH_STREAM_ERROR", t));
+        }
+
+        @Override
+        public void onCompleted() {
+            terminate(new PublishException("Publish stream closed by server for topic " + topic, "PUBLISH_STREAM_CLOSED"));
+        }
+
+        void close() {
+            synchronized (this) {
+                if (open) {
+                    requestObserver.onCompleted();
+                }
+            }
+            terminate(new PublishException("Publish stream closed for topic " + topic, "PUBLISH_STREAM_CLOSED"));
+        }
+
+        private void terminate(PublishException cause) {
+            open = false;
+            sessions.remove(topic, this);
+            log.info(LOG_STREAM_CLOSED, topic, pending.size());
+            pending.keySet().forEach(key -> complete(key).ifPresent(future -> future.completeExceptionally(cause)));
+        }
+    }
+}
@@ -2,33 +2,37 @@ package com.pubsub.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.ByteString;
+import com.pubsub.checkpoint.CheckpointStore;
+import com.pubsub.config.PubSubConfiguration;
 import com.pubsub.config.SalesforceSubscribeConfig;
+import com.pubsub.deadletter.DeadLetterRecord;
+import com.pubsub.deadletter.DeadLetterSpool;
 import com.pubsub.events.ProcessEventManager;
 import com.pubsub.exceptions.SchemaFetchException;
+import com.pubsub.metrics.PubSubMetrics;
 import com.pubsub.models.ProcessedEvent;
-import com.pubsub.utils.SalesforceSessionTokenService;
+import com.pubsub.utils.AvroDeserializer;
+import com.pubsub.utils.SalesforceCredentialManager;
 import com.salesforce.eventbus.protobuf.ConsumerEvent;
 import com.salesforce.eventbus.protobuf.FetchRequest;
 import com.salesforce.eventbus.protobuf.FetchResponse;
 import com.salesforce.eventbus.protobuf.ReplayPreset;
 import io.grpc.CallCredentials;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.Schema;
-import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
-import org.apache.avro.io.BinaryDecoder;
-import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.DecoderFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 @Data
@@ -38,140 +42,149 @@ public class Subscribe {
 
     // Constants for log messages
     private static final String LOG_RECEIVED_BATCH = "Received batch of {} {} with RPC ID: {}";
-    private static final String LOG_RETRY_SUBSCRIPTION = "Retrying {} subscription";
-    private static final String LOG_SUBSCRIPTION_COMPLETED = "Call completed by server. Closing Subscription.";
+    private static final String LOG_RECONNECTING = "Reconnecting {} subscription";
+    private static final String LOG_SUBSCRIPTION_COMPLETED = "Call completed by server for {}. Closing Subscription and reconnecting.";
+    private static final String LOG_RESUMING = "Resuming {} subscription after checkpointed replay ID";
+    private static final String LOG_CHECKPOINT_REJECTED = "Checkpointed replay ID for {} was rejected, discarding it: {}";
     private static final String ERROR_FETCH_SCHEMA = "Failed to fetch schema for ID: ";
     private static final String ERROR_PROCESS_EVENT = "Error processing event: {}";
     private static final String ERROR_SUBSCRIPTION = "Error during {} subscription";
+    private static final String ERROR_STREAM_COMPLETED = "Subscribe stream completed by server";
 
     private final IPubSubService pubSubService;
+    private final PubSubConfiguration config;
     private final SalesforceSubscribeConfig salesforceSubscribeConfig;
-    private final SalesforceSessionTokenService salesforceSessionTokenService;
+    private final SalesforceCredentialManager credentialManager;
     private final TopicSchema topicSchema;
     private final ObjectMapper objectMapper;
     private final ProcessEventManager processEventManager;
     private final ApplicationContext applicationContext;
-    private final Map<String, Schema> schemaCache = new ConcurrentHashMap<>();
+    private final SchemaRegistry schemaRegistry;
+    private final AvroDeserializer avroDeserializer;
+    private final CheckpointStore checkpointStore;
+    private final DeadLetterSpool deadLetters;
+    private final SubscriptionSupervisor supervisor;
+    private final PubSubMetrics metrics;
 
+    /**
+     * Opens a subscribe stream for the topic. Whenever it fails, the {@link SubscriptionSupervisor} decides
+     * whether and when it is opened again.
+     */
     public void startSubscription(String topic, int batchSize, ReplayPreset replayPreset, CallCredentials callCredentials) {
+        SubscriptionSupervisor.Supervision supervision = supervisor.supervise(topic,
+                reconnecting -> reconnect(topic, batchSize, replayPreset, reconnecting));
         try {
             pubSubService.checkSubscriptionStatus(topic, callCredentials);
             topicSchema.getSchema(topic, callCredentials);
-            fetchEvents(batchSize, topic, replayPreset, callCredentials);
+            fetchEvents(batchSize, topic, replayPreset, callCredentials, supervision);
             logChannelStatus(topic);
         } catch (Exception e) {
             log.error("Failed to start subscription for topic: {}", topic, e);
+            supervision.onFailure(e);
         }
     }
 
-    private void fetchEvents(int batchSize, String topic, ReplayPreset replayPreset, CallCredentials callCredentials) {
-        StreamObserverHolder<FetchRequest> fetchRequestHolder = new StreamObserverHolder<>();
-        StreamObserver<FetchResponse> fetchResponseObserver = createResponseObserver(batchSize, topic, fetchRequestHolder, callCredentials);
-        fetchRequestHolder.setStreamObserver(pubSubService.pubSubAsyncStub(callCredentials).subscribe(fetchResponseObserver));
-        sendFetchRequest(fetchRequestHolder.getStreamObserver(), topic, batchSize, replayPreset);
+    /**
+     * Opens the stream again with the cached session and schema, resuming from the checkpoint if there is one and
+     * from the configured replay preset otherwise.
+     */
+    private void reconnect(String topic, int batchSize, ReplayPreset replayPreset,
+                           SubscriptionSupervisor.Supervision supervision) {
+        log.info(LOG_RECONNECTING, topic);
+        CallCredentials callCredentials = credentialManager.getCredentials();
+        topicSchema.getSchema(topic, callCredentials);
+        fetchEvents(batchSize, topic, replayPreset, callCredentials, supervision);
     }
 
-    private StreamObserver<FetchResponse> createResponseObserver(int batchSize, String topic, StreamObserverHolder<FetchRequest> fetchRequestHolder, CallCredentials callCredentials) {
-        return new StreamObserver<>() {
-            @Override
-            public void onNext(FetchResponse fetchResponse) {
-                handleFetchResponse(fetchResponse, batchSize, topic, fetchRequestHolder.getStreamObserver(), callCredentials);
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                handleSubscriptionError(t, batchSize, topic);
-            }
-
-            @Override
-            public void onCompleted() {
-                log.info(LOG_SUBSCRIPTION_COMPLETED);
-            }
-        };
+    private void fetchEvents(int batchSize, String topic, ReplayPreset replayPreset, CallCredentials callCredentials,
+                             SubscriptionSupervisor.Supervision supervision) {
+        Subscription subscription = new Subscription(topic, batchSize, callCredentials, supervision);
+        Optional<ByteString> checkpoint = checkpointStore.load(topic);
+        if (checkpoint.isPresent()) {
+            log.info(LOG_RESUMING, topic);
+            subscription.open(ReplayPreset.CUSTOM, checkpoint.get());
+        } else {
+            subscription.open(replayPreset, null);
+        }
     }
 
-    private void handleFetchResponse(FetchResponse fetchResponse, int batchSize, String topic, StreamObserver<FetchRequest> fetchRequestStreamObserver, CallCredentials callCredentials) {
-        if (!fetchResponse.getEventsList().isEmpty()) {
-            log.info(LOG_RECEIVED_BATCH, fetchResponse.getEventsList().size(), topic, fetchResponse.getRpcId());
-            fetchResponse.getEventsList().forEach(event -> processEventSafely(event, topic, fetchResponse.getRpcId(), callCredentials));
+    /**
+     * Decodes the event on the calling thread. An event that cannot be decoded is dead-lettered.
+     *
+     * @return hands the decoded event to the observers of its topic and completes once it has been processed;
+     * never throws
+     */
+    Supplier<CompletableFuture<Void>> decodeEvent(ConsumerEvent event, String topic, String rpcId, CallCredentials callCredentials) {
+        return decodeEvent(event, topic, rpcId, null, callCredentials);
+    }
 
-            if (fetchResponse.getPendingNumRequested() == 0) {
-                sendFetchRequest(fetchRequestStreamObserver, topic, batchSize, ReplayPreset.LATEST);
-            }
-        }
+    /**
+     * Decodes a dead-lettered event again and redelivers it to the observer it failed for, or to every
+     * observer of its topic if it could not be decoded before. Failing again dead-letters it again.
+     *
+     * @return completes once the event has been processed
+     */
+    public CompletableFuture<Void> redeliver(DeadLetterRecord record, CallCredentials callCredentials) {
+        return decodeEvent(record.toConsumerEvent(), record.topic(), null, record.observer(), callCredentials).get();
     }
 
-    private void processEventSafely(ConsumerEvent event, String topic, String rpcId, CallCredentials callCredentials) {
+    private Supplier<CompletableFuture<Void>> decodeEvent(ConsumerEvent event, String topic, String rpcId, String observer,
+                                                          CallCredentials callCredentials) {
+        ProcessedEvent processedEvent;
         try {
-            processEvent(event, topic, rpcId, callCredentials);
+            processedEvent = createProcessedEvent(event, topic, rpcId, callCredentials);
         } catch (Exception e) {
-            log.error(ERROR_PROCESS_EVENT, e.getMessage(), e);
+            metrics.topic(topic).onDecodeFailed();
+            return () -> onProcessingFailed(event, topic, observer, e);
         }
+        return () -> {
+            try {
+                if (observer != null) {
+                    return processEventManager.notifyObserver(topic, observer, processedEvent);
+                }
+                return notifyObservers(topic, processedEvent);
+            } catch (Exception e) {
+                metrics.topic(topic).observerFailed().increment();
+                return onProcessingFailed(event, topic, observer, e);
+            }
+        };
     }
 
-    private void processEvent(ConsumerEvent event, String topic, String rpcId, CallCredentials callCredentials) throws Exception {
-        ProcessedEvent processedEvent = createProcessedEvent(event, topic, rpcId, callCredentials);
-        notifyObservers(topic, processedEvent);
+    private CompletableFuture<Void> onProcessingFailed(ConsumerEvent event, String topic, String observer, Exception e) {
+        log.error(ERROR_PROCESS_EVENT, e.getMessage(), e);
+        deadLetters.append(DeadLetterRecord.of(event, topic, observer, e.toString()));
+        return CompletableFuture.completedFuture(null);
     }
 
     private ProcessedEvent createProcessedEvent(ConsumerEvent event, String topic, String rpcId, CallCredentials callCredentials) throws IOException {
-        Schema writerSchema = getSchema(event.getEvent().getSchemaId(), callCredentials);
-        GenericRecord receivedRecord = deserialize(writerSchema, event.getEvent().getPayload());
+        String schemaId = event.getEvent().getSchemaId();
+        Schema writerSchema = getSchema(schemaId, callCredentials);
+        long decodeStart = System.nanoTime();
+        GenericRecord receivedRecord = avroDeserializer.deserialize(schemaId, writerSchema, event.getEvent().getPayload());
+        metrics.avroDecode().record(System.nanoTime() - decodeStart, TimeUnit.NANOSECONDS);
 
         return ProcessedEvent.builder()
                 .topic(topic)
                 .rpcId(rpcId)
                 .schema(writerSchema)
-                .payload(receivedRecord.toString())
+                .schemaId(schemaId)
+                .payloadBytes(event.getEvent().getPayload())
+                .record(receivedRecord)
                 .replayId(event.getReplayId())
                 .build();
     }
 
     private Schema getSchema(String schemaId, CallCredentials callCredentials) {
-        return schemaCache.computeIfAbsent(schemaId, id -> {
-            try {
-                String schemaJson = pubSubService.getSchemaJson(schemaId, callCredentials);
-                return new Schema.Parser().parse(schemaJson);
-            } catch (Exception e) {
-                log.error(ERROR_FETCH_SCHEMA + "{}", schemaId, e);
-                throw new SchemaFetchException(ERROR_FETCH_SCHEMA + schemaId, e);
-            }
-        });
-    }
-
-    private void notifyObservers(String topic, ProcessedEvent processedEvent) throws Exception {
-        processEventManager.notifyObservers(topic, processedEvent);
-    }
-
-    private GenericRecord deserialize(Schema schema, ByteString payload) throws IOException {
-        DatumReader<GenericRecord> reader = new GenericDatumReader<>(schema);
-        try (ByteArrayInputStream in = new ByteArrayInputStream(payload.toByteArray())) {
-            BinaryDecoder decoder = DecoderFactory.get().directBinaryDecoder(in, null);
-            return reader.read(null, decoder);
-        }
-    }
-
-    private void handleSubscriptionError(Throwable t, int batchSize, String topic) {
-        log.error(ERROR_SUBSCRIPTION, topic, t);
         try {
-            retrySubscription(batchSize, topic);
+            return schemaRegistry.getSchemaById(schemaId, callCredentials).schema();
         } catch (Exception e) {
-            log.error("Failed to retry subscription for topic: {}", topic, e);
+            log.error(ERROR_FETCH_SCHEMA + "{}", schemaId, e);
+            throw new SchemaFetchException(ERROR_FETCH_SCHEMA + schemaId, e);
         }
     }
 
-    private void retrySubscription(int batchSize, String topic) {
-        log.info(LOG_RETRY_SUBSCRIPTION, topic);
-        startSubscription(topic, batchSize, ReplayPreset.LATEST, salesforceSessionTokenService.login());
-    }
-
-    private void sendFetchRequest(StreamObserver<FetchRequest> fetchRequestStreamObserver, String topic, int batchSize, ReplayPreset replayPreset) {
-        FetchRequest fetchRequest = FetchRequest.newBuilder()
-                .setNumRequested(batchSize)
-                .setTopicName(topic)
-                .setReplayPreset(replayPreset)
-                .build();
-        fetchRequestStreamObserver.onNext(fetchRequest);
+    private CompletableFuture<Void> notifyObservers(String topic, ProcessedEvent processedEvent) {
+        return processEventManager.notifyObservers(topic, processedEvent);
     }
 
     private void logChannelStatus(String topic) {
@@ -179,8 +192,84 @@ public class Subscribe {
         log.info("Channel is {} for {}", Boolean.TRUE.equals(isChannelShutdown) ? "shutdown" : "open", topic);
     }
 
-    @Data
-    private static class StreamObserverHolder<T> {
-        private StreamObserver<T> streamObserver;
+    /**
+     * One subscribe stream. Its first request positions it at the replay preset or checkpointed replay ID,
+     * and processed events advance the topic's checkpoint.
+     */
+    private class Subscription extends SubscriptionStream<FetchResponse> {
+        private final CallCredentials callCredentials;
+        private final SubscriptionSupervisor.Supervision supervision;
+        private StreamObserver<FetchRequest> requestObserver;
+        private ReplayPreset replayPreset;
+        private ByteString replayId;
+
+        Subscription(String topic, int batchSize, CallCredentials callCredentials, SubscriptionSupervisor.Supervision supervision) {
+            super(topic, batchSize, config.getEventProcessing(), metrics.topic(topic));
+            this.callCredentials = callCredentials;
+            this.supervision = supervision;
+        }
+
+        void open(ReplayPreset replayPreset, ByteString replayId) {
+            this.replayPreset = replayPreset;
+            this.replayId = replayId;
+            requestObserver = pubSubService.openStream(callCredentials, stub -> stub.subscribe(this));
+            start();
+        }
+
+        @Override
+        public void onNext(FetchResponse fetchResponse) {
+            supervision.onConnected();
+            if (!fetchResponse.getEventsList().isEmpty()) {
+                log.info(LOG_RECEIVED_BATCH, fetchResponse.getEventsCount(), topic, fetchResponse.getRpcId());
+            }
+            onEvents(fetchResponse.getEventsList(), fetchResponse.getRpcId(), fetchResponse.getPendingNumRequested());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+            log.error(ERROR_SUBSCRIPTION, topic, t);
+            // A replay ID that is too old or otherwise invalid fails the stream before any event is delivered
+            if (replayId != null && !hasReceivedEvents() && Status.fromThrowable(t).getCode() == Status.Code.INVALID_ARGUMENT) {
+                log.warn(LOG_CHECKPOINT_REJECTED, topic, t.getMessage());
+                checkpointStore.remove(topic);
+                supervision.onRetryableFailure(t);
+                return;
+            }
+            supervision.onFailure(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            log.info(LOG_SUBSCRIPTION_COMPLETED, topic);
+            close();
+            supervision.onRetryableFailure(Status.UNAVAILABLE.withDescription(ERROR_STREAM_COMPLETED).asRuntimeException());
+        }
+
+        @Override
+        protected Supplier<CompletableFuture<Void>> decode(ConsumerEvent event, String rpcId) {
+            return decodeEvent(event, topic, rpcId, callCredentials);
+        }
+
+        @Override
+        protected void sendFetchRequest(int numRequested) {
+            FetchRequest.Builder fetchRequest = FetchRequest.newBuilder()
+                    .setNumRequested(numRequested)
+                    .setTopicName(topic);
+            // Only the first request of the stream positions it
+            if (replayPreset != null) {
+                fetchRequest.setReplayPreset(replayPreset);
+                if (replayPreset == ReplayPreset.CUSTOM) {
+                    fetchRequest.setReplayId(replayId);
+                }
+                replayPreset = null;
+            }
+            requestObserver.onNext(fetchRequest.build());
+        }
+
+        @Override
+        protected void onCheckpoint(ByteString replayId) {
+            checkpointStore.save(topic, replayId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.config.SalesforceSubscribeConfig;
+import com.pubsub.utils.SalesforceCredentialManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Starts the subscriptions listed in {@code salesforce-subscribe-config.subscriptions}.
+ *
+ * Starting a subscription makes blocking GetTopic and GetSchema calls, so all of them are started at once
+ * on virtual threads rather than one after another. Each stream is opened on the pooled channel of
+ * {@link PubSubService} carrying the fewest open streams, and the session is shared through the
+ * {@link SalesforceCredentialManager}. Observers are registered by {@code ObserverConfig} before the
+ * application is ready.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SubscriptionManager {
+
+    private static final String LOG_STARTING = "Starting {} configured subscriptions";
+    private static final String LOG_STARTED = "Started {} configured subscriptions";
+    private static final String LOG_LISTENING_OFF = "Event listening is off; not starting {} configured subscriptions";
+    private static final String ERROR_START = "Failed to start configured subscription for topic: {}";
+
+    private final Subscribe subscribe;
+    private final PubSubConfiguration config;
+    private final SalesforceSubscribeConfig salesforceSubscribeConfig;
+    private final SalesforceCredentialManager credentialManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSubscriptions() {
+        List<SalesforceSubscribeConfig.TopicSubscription> subscriptions = salesforceSubscribeConfig.getSubscriptions();
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (Boolean.FALSE.equals(salesforceSubscribeConfig.getEventListeningOn())) {
+            log.info(LOG_LISTENING_OFF, subscriptions.size());
+            return;
+        }
+        log.info(LOG_STARTING, subscriptions.size());
+        // Not closed with try-with-resources, which would wait for every start on the caller's thread
+        ExecutorService starters = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture<?>[] started = subscriptions.stream()
+                .map(subscription -> CompletableFuture.runAsync(() -> start(subscription), starters))
+                .toArray(CompletableFuture[]::new);
+        starters.shutdown();
+        CompletableFuture.allOf(started).thenRun(() -> log.info(LOG_STARTED, subscriptions.size()));
+    }
+
+    /**
+     * @return whether the topic is subscribed to from configuration
+     */
+    public boolean isConfigured(String topic) {
+        return salesforceSubscribeConfig.getSubscriptions().stream()
+                .anyMatch(subscription -> topic.equals(subscription.getTopic()));
+    }
+
+    private void start(SalesforceSubscribeConfig.TopicSubscription subscription) {
+        try {
+            int batchSize = subscription.getBatchSize() != null
+                    ? subscription.getBatchSize()
+                    : config.getEventProcessing().getBatchSize();
+            subscribe.startSubscription(subscription.getTopic(), batchSize, subscription.getReplayPreset(),
+                    credentialManager.getCredentials());
+        } catch (Exception e) {
+            log.error(ERROR_START, subscription.getTopic(), e);
+        }
+    }
+}
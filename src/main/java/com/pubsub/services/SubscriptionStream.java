@@ -0,0 +1,168 @@
+package com.pubsub.services;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.checkpoint.ReplayCheckpointTracker;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Flow-controlled event delivery shared by the {@code Subscribe} and {@code ManagedSubscribe} streams.
+ *
+ * The gRPC callback thread only publishes received events into an {@link EventRingBuffer}; consumer
+ * threads take them from the ring, decode them and hand them to the dispatch lanes, and credits for more
+ * events are requested from the server as soon as completed events bring the backlog down to the low
+ * watermark, so the stream keeps delivering while events are processed. Events that are received but not
+ * yet completed hold their credits, which is what pushes back on the server when consumers fall behind.
+ *
+ * With several consumer threads, events are decoded in parallel but handed to the lanes in delivery order
+ * through an {@link InOrderHandOff}, so events with the same key keep their order. Events may complete out
+ * of order; they advance the stream's checkpoint in delivery order through {@link #onCheckpoint}.
+ *
+ * Outbound StreamObservers are not thread-safe, so subclasses send every request while holding this
+ * object's monitor.
+ *
+ * @param <T> response message type of the stream
+ */
+@Slf4j
+abstract class SubscriptionStream<T> implements StreamObserver<T> {
+
+    private static final String LOG_REQUEST_FAILED = "Failed to request {} more events for topic {}: {}";
+
+    protected final String topic;
+    protected final int batchSize;
+    protected final ReplayCheckpointTracker checkpoints;
+    private final int consumerThreads;
+    private final FetchCreditController credits;
+    private final EventRingBuffer ring;
+    // Only needed when several consumers decode concurrently
+    private final InOrderHandOff handOff;
+    private final PubSubMetrics.TopicMeters meters;
+    private final ExecutorService consumers;
+    private volatile boolean receivedEvents;
+    private volatile boolean closed;
+
+    SubscriptionStream(String topic, int batchSize, PubSubConfiguration.EventProcessingConfig eventProcessing,
+                       PubSubMetrics.TopicMeters meters) {
+        this.topic = topic;
+        this.meters = meters;
+        this.batchSize = batchSize;
+        this.consumerThreads = eventProcessing.getConsumerThreads();
+        this.credits = new FetchCreditController(eventProcessing.getBufferHighWatermark(), eventProcessing.getBufferLowWatermark());
+        this.checkpoints = new ReplayCheckpointTracker(this::onCheckpoint);
+        // Credits never let more than the high watermark be buffered, so the ring only overflows if the server
+        // sends more than was requested
+        this.ring = new EventRingBuffer(eventProcessing.getBufferHighWatermark(), eventProcessing.getWaitStrategy());
+        this.handOff = consumerThreads > 1 ? new InOrderHandOff() : null;
+        // Consumers block on the ring for the lifetime of the stream, so each stream needs threads of its own
+        this.consumers = Executors.newFixedThreadPool(consumerThreads,
+                Thread.ofPlatform().name("subscribe-" + topic + "-", 1).daemon(true).factory());
+    }
+
+    /**
+     * Decodes one event on a consumer thread. Consumers may decode several events at once. Must not throw.
+     *
+     * @return hands the event to the dispatch lanes, called in delivery order, and completes once it has
+     * been processed
+     */
+    protected abstract Supplier<CompletableFuture<Void>> decode(ConsumerEvent event, String rpcId);
+
+    /**
+     * Sends one request for more events. Called while holding this object's monitor.
+     */
+    protected abstract void sendFetchRequest(int numRequested);
+
+    /**
+     * Receives the replay ID up to which all delivered events have been processed.
+     */
+    protected abstract void onCheckpoint(ByteString replayId);
+
+    /**
+     * Starts the consumer threads and requests the initial credits. The stream must be open.
+     */
+    protected void start() {
+        for (int i = 0; i < consumerThreads; i++) {
+            consumers.execute(this::consume);
+        }
+        requestEvents(credits.initialCredits());
+    }
+
+    protected void onEvents(List<ConsumerEvent> events, String rpcId, int pendingNumRequested) {
+        if (!events.isEmpty()) {
+            receivedEvents = true;
+            meters.onFetched(events.size());
+            events.forEach(event -> ring.publish(event, rpcId, checkpoints.register()));
+        }
+        requestEvents(credits.onReceived(events.size(), pendingNumRequested));
+    }
+
+    protected boolean hasReceivedEvents() {
+        return receivedEvents;
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops requesting events. Consumers finish the events already buffered, then exit.
+     */
+    protected void close() {
+        closed = true;
+        ring.signalAll();
+        consumers.shutdown();
+    }
+
+    private void consume() {
+        int idle = 0;
+        // Events already received are still processed after the stream has closed
+        while (!closed || !ring.isEmpty()) {
+            if (ring.poll(this::dispatch)) {
+                idle = 0;
+            } else if (Thread.currentThread().isInterrupted()) {
+                return;
+            } else {
+                ring.awaitEvents(idle++);
+            }
+        }
+    }
+
+    private void dispatch(ConsumerEvent event, String rpcId, long sequence) {
+        Supplier<CompletableFuture<Void>> decoded = decode(event, rpcId);
+        if (handOff == null) {
+            deliver(decoded, event, sequence);
+        } else {
+            handOff.submit(sequence, () -> deliver(decoded, event, sequence));
+        }
+    }
+
+    private void deliver(Supplier<CompletableFuture<Void>> decoded, ConsumerEvent event, long sequence) {
+        // Credit is returned when processing completes, so events queued for observers count as buffered
+        decoded.get().whenComplete((result, failure) -> {
+            checkpoints.complete(sequence, event.getReplayId());
+            requestEvents(credits.onConsumed(1));
+        });
+    }
+
+    private synchronized void requestEvents(int count) {
+        while (count > 0 && !closed) {
+            int numRequested = Math.min(count, batchSize);
+            try {
+                sendFetchRequest(numRequested);
+            } catch (Exception e) {
+                log.warn(LOG_REQUEST_FAILED, numRequested, topic, e.getMessage());
+                credits.onRequestFailed(count);
+                return;
+            }
+            count -= numRequested;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decides when a failed subscription stream is opened again.
+ *
+ * Each subscription gets a {@link Supervision}. Failures with a status in
+ * {@code pubsub.reconnect.fatal-status-codes} stop the subscription; any other failure schedules a reconnect
+ * after an exponential backoff with equal jitter, so subscriptions failing together do not reconnect
+ * together. After {@code pubsub.reconnect.circuit-breaker-threshold} consecutive failures the circuit opens
+ * and only one attempt is made per {@code pubsub.reconnect.circuit-open-ms} until a stream delivers a
+ * response again. Reconnects run on one shared thread.
+ */
+@Slf4j
+@Component
+public class SubscriptionSupervisor {
+
+    private static final String LOG_RECONNECT_SCHEDULED = "Reconnecting {} in {} ms after {} consecutive failures ({})";
+    private static final String LOG_CIRCUIT_OPEN = "Circuit opened for {} after {} consecutive failures; next attempt in {} ms";
+    private static final String LOG_CIRCUIT_CLOSED = "Circuit closed for {}";
+    private static final String ERROR_FATAL = "Not reconnecting {} after fatal status {}";
+    private static final String ERROR_RECONNECT = "Reconnect attempt for {} failed";
+
+    private static final String METRIC_RECONNECTS = "pubsub.subscription.reconnects";
+    private static final String METRIC_CIRCUIT_OPEN = "pubsub.subscription.circuit.open";
+    private static final String TAG_SUBSCRIPTION = "subscription";
+
+    private final PubSubConfiguration.ReconnectConfig reconnect;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> circuitStates = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "subscription-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SubscriptionSupervisor(PubSubConfiguration config, MeterRegistry meterRegistry) {
+        this.reconnect = config.getReconnect();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name      topic or managed subscription name, used in logs and metric tags
+     * @param reconnect opens the subscription again; failures must be reported to the supervision it receives
+     */
+    Supervision supervise(String name, Consumer<Supervision> reconnect) {
+        return new Supervision(name, reconnect);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Backoff before the given consecutive failure's reconnect, before jitter.
+     */
+    long backoffMs(int failures) {
+        int exponent = Math.min(failures - 1, 30);
+        return Math.min(reconnect.getMaxBackoffMs(), reconnect.getInitialBackoffMs() << exponent);
+    }
+
+    boolean isFatal(Throwable t) {
+        return reconnect.getFatalStatusCodes().contains(Status.fromThrowable(t).getCode());
+    }
+
+    /**
+     * Reconnect state of one subscription.
+     */
+    final class Supervision {
+        private final String name;
+        private final Consumer<Supervision> reconnectAction;
+        private final Counter reconnects;
+        private final AtomicInteger circuitOpen;
+
+        // Guarded by this
+        private int failures;
+        private ScheduledFuture<?> pending;
+        private boolean stopped;
+
+        private Supervision(String name, Consumer<Supervision> reconnectAction) {
+            this.name = name;
+            this.reconnectAction = reconnectAction;
+            Tags tags = Tags.of(TAG_SUBSCRIPTION, name);
+            this.reconnects = meterRegistry.counter(METRIC_RECONNECTS, tags);
+            this.circuitOpen = circuitStates.computeIfAbsent(name,
+                    key -> meterRegistry.gauge(METRIC_CIRCUIT_OPEN, tags, new AtomicInteger()));
+        }
+
+        /**
+         * Records that the stream is working, resetting the backoff and closing the circuit.
+         */
+        synchronized void onConnected() {
+            if (failures >= reconnect.getCircuitBreakerThreshold()) {
+                log.info(LOG_CIRCUIT_CLOSED, name);
+            }
+            failures = 0;
+            circuitOpen.set(0);
+        }
+
+        /**
+         * Stops the subscription if the failure is fatal, otherwise schedules a reconnect.
+         */
+        void onFailure(Throwable t) {
+            if (isFatal(t)) {
+                log.error(ERROR_FATAL, name, Status.fromThrowable(t).getCode(), t);
+                stop();
+                return;
+            }
+            onRetryableFailure(t);
+        }
+
+        /**
+         * Schedules a reconnect whatever the status, e.g. after the cause of the failure has been removed.
+         * Further failures are ignored while a reconnect is pending.
+         */
+        synchronized void onRetryableFailure(Throwable t) {
+            if (stopped || pending != null) {
+                return;
+            }
+            failures++;
+            long delay;
+            if (failures >= reconnect.getCircuitBreakerThreshold()) {
+                delay = reconnect.getCircuitOpenMs();
+                circuitOpen.set(1);
+                log.error(LOG_CIRCUIT_OPEN, name, failures, delay);
+            } else {
+                long backoff = backoffMs(failures);
+                delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                log.warn(LOG_RECONNECT_SCHEDULED, name, delay, failures, Status.fromThrowable(t).getCode());
+            }
+            try {
+                pending = scheduler.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                stopped = true;
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+
+        boolean isCircuitOpen() {
+            return circuitOpen.get() == 1;
+        }
+
+        private void attempt() {
+            synchronized (this) {
+                pending = null;
+                if (stopped) {
+                    return;
+                }
+            }
+            reconnects.increment();
+            try {
+                reconnectAction.accept(this);
+            } catch (Exception e) {
+                log.error(ERROR_RECONNECT, name, e);
+                onFailure(e);
+            }
+        }
+    }
+}
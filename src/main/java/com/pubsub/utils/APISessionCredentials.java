@@ -24,6 +24,8 @@ public class APISessionCredentials extends CallCredentials {
     private String instanceURL;
     private String tenantId;
     private String token;
+    // Time the session was issued, in epoch milliseconds
+    private long issuedAt;
 
 
     @Override
@@ -0,0 +1,49 @@
+package com.pubsub.utils;
+
+import com.google.protobuf.ByteString;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decodes Avro event payloads with as little allocation as possible.
+ *
+ * One {@link GenericDatumReader} is kept per schema ID. Each thread copies the payload into its own scratch
+ * array, grown only when a larger payload arrives, and decodes it with a {@link BinaryDecoder} that reads
+ * that array directly and is reused across events, so decoding an event allocates no buffers.
+ *
+ * Decoded records are not reused: they are handed to observers that may still hold them while the next
+ * event is decoded. They do not reference the scratch array, as the decoder copies strings and bytes out of it.
+ */
+@Component
+public class AvroDeserializer {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private final Map<String, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+    private final ThreadLocal<DecodeBuffer> buffers = ThreadLocal.withInitial(DecodeBuffer::new);
+
+    public GenericRecord deserialize(String schemaId, Schema schema, ByteString payload) throws IOException {
+        GenericDatumReader<GenericRecord> reader = readers.computeIfAbsent(schemaId, id -> new GenericDatumReader<>(schema));
+        DecodeBuffer buffer = buffers.get();
+        int length = payload.size();
+        if (buffer.bytes.length < length) {
+            buffer.bytes = new byte[Math.max(length, buffer.bytes.length * 2)];
+        }
+        payload.copyTo(buffer.bytes, 0);
+        buffer.decoder = DecoderFactory.get().binaryDecoder(buffer.bytes, 0, length, buffer.decoder);
+        return reader.read(null, buffer.decoder);
+    }
+
+    private static final class DecodeBuffer {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private BinaryDecoder decoder;
+    }
+}
@@ -0,0 +1,61 @@
+package com.pubsub.utils;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes Avro records into event payloads with as little allocation as possible.
+ *
+ * One {@link GenericDatumWriter} is kept per schema, and each thread reuses its output buffer and
+ * {@link BinaryEncoder}. The only per-event allocation is the right-sized payload array, which is wrapped
+ * into a {@link ByteString} without a further copy. This is safe because the array is never touched again.
+ */
+@Component
+public class AvroSerializer {
+
+    // Buffers grown beyond this by an unusually large event are dropped instead of being kept per thread
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1024 * 1024;
+    private static final int INITIAL_BUFFER_BYTES = 1024;
+
+    private final Map<Schema, GenericDatumWriter<GenericRecord>> writers = new ConcurrentHashMap<>();
+    private final ThreadLocal<EncodeBuffer> buffers = ThreadLocal.withInitial(EncodeBuffer::new);
+
+    public ByteString serialize(GenericRecord record) throws IOException {
+        GenericDatumWriter<GenericRecord> writer = writers.computeIfAbsent(record.getSchema(), GenericDatumWriter::new);
+        EncodeBuffer buffer = buffers.get();
+        try {
+            buffer.encoder = EncoderFactory.get().directBinaryEncoder(buffer, buffer.encoder);
+            writer.write(record, buffer.encoder);
+            return UnsafeByteOperations.unsafeWrap(buffer.toByteArray());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+                buffers.remove();
+            } else {
+                buffer.reset();
+            }
+        }
+    }
+
+    private static final class EncodeBuffer extends ByteArrayOutputStream {
+        private BinaryEncoder encoder;
+
+        EncodeBuffer() {
+            super(INITIAL_BUFFER_BYTES);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
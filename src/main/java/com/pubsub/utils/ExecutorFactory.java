@@ -0,0 +1,28 @@
+package com.pubsub.utils;
+
+import com.pubsub.config.PubSubConfiguration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors that run blocking work, such as observer callbacks and unary publishes,
+ * according to the configured {@link PubSubConfiguration.ExecutionMode}.
+ */
+public final class ExecutorFactory {
+
+    private ExecutorFactory() {
+    }
+
+    /**
+     * @param mode            PLATFORM for a fixed pool of platform threads, VIRTUAL for one virtual thread per task
+     * @param platformThreads pool size in PLATFORM mode; ignored in VIRTUAL mode
+     * @param namePrefix      thread name prefix, followed by a counter
+     */
+    public static ExecutorService newExecutor(PubSubConfiguration.ExecutionMode mode, int platformThreads, String namePrefix) {
+        if (mode == PubSubConfiguration.ExecutionMode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads, Thread.ofPlatform().name(namePrefix, 1).factory());
+    }
+}
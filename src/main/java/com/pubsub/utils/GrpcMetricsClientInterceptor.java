@@ -0,0 +1,185 @@
+package com.pubsub.utils;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, status, message counts and serialized bytes of every call, tagged by method.
+ *
+ * Calls are timed from {@code start} until the server closes them, so for unary calls the duration is
+ * the network round trip plus server time. On streaming calls such as Subscribe and PublishStream,
+ * {@code pubsub.grpc.client.message.interval} is the time since the previous response or the start of the
+ * call, which is set by the server and the network, and {@code pubsub.grpc.client.message.processing} is
+ * the time this client spends handling each response on the shared callback executor that
+ * {@code GrpcTransport} configures for the channels. Unary calls slower than the threshold are logged with
+ * the server's {@code rpc_id}, which Salesforce support needs to look the call up.
+ *
+ * Meters are created once per method and status, so one instance can be shared by all channels.
+ */
+@Slf4j
+public class GrpcMetricsClientInterceptor implements ClientInterceptor {
+
+    private static final String LOG_SLOW_CALL = "Slow gRPC call {}: {} ms, status {}, rpc_id {}";
+    private static final String METRIC_CALL_DURATION = "pubsub.grpc.client.call.duration";
+    private static final String METRIC_MESSAGES_SENT = "pubsub.grpc.client.messages.sent";
+    private static final String METRIC_MESSAGES_RECEIVED = "pubsub.grpc.client.messages.received";
+    private static final String METRIC_BYTES_SENT = "pubsub.grpc.client.bytes.sent";
+    private static final String METRIC_BYTES_RECEIVED = "pubsub.grpc.client.bytes.received";
+    private static final String METRIC_MESSAGE_INTERVAL = "pubsub.grpc.client.message.interval";
+    private static final String METRIC_MESSAGE_PROCESSING = "pubsub.grpc.client.message.processing";
+    private static final String TAG_METHOD = "method";
+    private static final String TAG_STATUS = "status";
+    private static final String UNIT_BYTES = "bytes";
+    private static final String RPC_ID_FIELD = "rpc_id";
+    private static final String RPC_ID_UNKNOWN = "n/a";
+
+    private final MeterRegistry registry;
+    private final long slowCallThresholdNanos;
+    private final Map<String, MethodMeters> methods = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowCallThresholdMs duration above which a unary call is logged; 0 disables the log
+     */
+    public GrpcMetricsClientInterceptor(MeterRegistry registry, long slowCallThresholdMs) {
+        this.registry = registry;
+        this.slowCallThresholdNanos = slowCallThresholdMs > 0
+                ? TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs)
+                : Long.MAX_VALUE;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        MethodMeters meters = methods.computeIfAbsent(method.getFullMethodName(), MethodMeters::new);
+        boolean unary = method.getType() == MethodDescriptor.MethodType.UNARY;
+        ClientCall<ReqT, RespT> call = next.newCall(method, callOptions.withStreamTracerFactory(meters.tracerFactory));
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(call) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                long start = System.nanoTime();
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    private long lastMessage = start;
+                    private RespT lastResponse;
+
+                    @Override
+                    public void onMessage(RespT message) {
+                        meters.received.increment();
+                        if (unary) {
+                            lastResponse = message;
+                            super.onMessage(message);
+                            return;
+                        }
+                        long received = System.nanoTime();
+                        meters.interval.record(received - lastMessage, TimeUnit.NANOSECONDS);
+                        lastMessage = received;
+                        try {
+                            super.onMessage(message);
+                        } finally {
+                            meters.processing.record(System.nanoTime() - received, TimeUnit.NANOSECONDS);
+                        }
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        long duration = System.nanoTime() - start;
+                        meters.duration(status.getCode()).record(duration, TimeUnit.NANOSECONDS);
+                        if (unary && duration >= slowCallThresholdNanos) {
+                            log.warn(LOG_SLOW_CALL, method.getFullMethodName(), TimeUnit.NANOSECONDS.toMillis(duration),
+                                    status.getCode(), rpcId(lastResponse));
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                meters.sent.increment();
+                super.sendMessage(message);
+            }
+        };
+    }
+
+    /**
+     * @return the {@code rpc_id} field of a Pub/Sub API response, or a placeholder if there is none
+     */
+    static String rpcId(Object response) {
+        if (response instanceof Message message) {
+            Descriptors.FieldDescriptor field = message.getDescriptorForType().findFieldByName(RPC_ID_FIELD);
+            if (field != null && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.STRING) {
+                return (String) message.getField(field);
+            }
+        }
+        return RPC_ID_UNKNOWN;
+    }
+
+    /**
+     * Meters of one method. Serialized bytes are counted per attempt, so retried and hedged attempts add up.
+     */
+    private final class MethodMeters {
+        private final Tags tags;
+        private final Map<Status.Code, Timer> durations = new ConcurrentHashMap<>();
+        private final Counter sent;
+        private final Counter received;
+        private final Counter bytesSent;
+        private final Counter bytesReceived;
+        private final Timer interval;
+        private final Timer processing;
+        private final ClientStreamTracer.Factory tracerFactory;
+
+        MethodMeters(String method) {
+            this.tags = Tags.of(TAG_METHOD, method);
+            this.sent = registry.counter(METRIC_MESSAGES_SENT, tags);
+            this.received = registry.counter(METRIC_MESSAGES_RECEIVED, tags);
+            this.bytesSent = Counter.builder(METRIC_BYTES_SENT).baseUnit(UNIT_BYTES).tags(tags).register(registry);
+            this.bytesReceived = Counter.builder(METRIC_BYTES_RECEIVED).baseUnit(UNIT_BYTES).tags(tags)
+                    .register(registry);
+            this.interval = Timer.builder(METRIC_MESSAGE_INTERVAL).tags(tags).publishPercentileHistogram()
+                    .register(registry);
+            this.processing = Timer.builder(METRIC_MESSAGE_PROCESSING).tags(tags).publishPercentileHistogram()
+                    .register(registry);
+            this.tracerFactory = new ClientStreamTracer.Factory() {
+                @Override
+                public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+                    return new ClientStreamTracer() {
+                        @Override
+                        public void outboundUncompressedSize(long bytes) {
+                            bytesSent.increment(bytes);
+                        }
+
+                        @Override
+                        public void inboundUncompressedSize(long bytes) {
+                            bytesReceived.increment(bytes);
+                        }
+                    };
+                }
+            };
+        }
+
+        Timer duration(Status.Code code) {
+            return durations.computeIfAbsent(code, key -> Timer.builder(METRIC_CALL_DURATION)
+                    .tags(tags.and(TAG_STATUS, key.name()))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+}
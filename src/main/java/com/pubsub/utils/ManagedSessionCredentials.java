@@ -0,0 +1,39 @@
+package com.pubsub.utils;
+
+import io.grpc.CallCredentials;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Call credentials that apply whichever session {@link SalesforceCredentialManager} currently holds.
+ *
+ * When a valid session is cached it is applied inline; otherwise the login runs on the executor supplied
+ * by gRPC so the calling thread is never blocked on the token exchange.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ManagedSessionCredentials extends CallCredentials {
+
+    private final SalesforceCredentialManager credentialManager;
+
+    @Override
+    public void applyRequestMetadata(RequestInfo requestInfo, Executor appExecutor, MetadataApplier applier) {
+        APISessionCredentials cached = credentialManager.cachedSession();
+        if (cached != null) {
+            cached.applyRequestMetadata(requestInfo, appExecutor, applier);
+            return;
+        }
+
+        appExecutor.execute(() -> {
+            try {
+                credentialManager.currentSession().applyRequestMetadata(requestInfo, appExecutor, applier);
+            } catch (Exception e) {
+                log.error("Unable to obtain Salesforce session for {}", requestInfo.getMethodDescriptor().getFullMethodName(), e);
+                applier.fail(Status.UNAUTHENTICATED.withDescription("Unable to obtain Salesforce session").withCause(e));
+            }
+        });
+    }
+}
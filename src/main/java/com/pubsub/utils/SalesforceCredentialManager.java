@@ -0,0 +1,212 @@
+package com.pubsub.utils;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.SalesforceLoginException;
+import com.pubsub.metrics.PubSubMetrics;
+import io.grpc.CallCredentials;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the Salesforce session of the configured org and keeps it fresh.
+ *
+ * The session is obtained once through {@link SalesforceSessionTokenService#login()} and reused until shortly
+ * before its assumed expiry, when it is refreshed in the background. Concurrent refreshes share a single
+ * token exchange. Callers should use {@link #getCredentials()}, which always applies the current session,
+ * so stubs and retried calls pick up a refreshed token without being rebuilt.
+ */
+@Slf4j
+@Service
+public class SalesforceCredentialManager {
+
+    private static final String LOG_SESSION_REFRESHED = "Salesforce session refreshed, next refresh at {}";
+    private static final String LOG_REFRESH_FAILED = "Failed to refresh Salesforce session, retrying in {} seconds";
+    private static final String LOG_UNAUTHENTICATED = "Pub/Sub API rejected the current session, refreshing credentials";
+
+    private final SalesforceSessionTokenService sessionTokenService;
+    private final PubSubConfiguration.AuthConfig authConfig;
+    private final PubSubMetrics metrics;
+    private final ManagedSessionCredentials managedCredentials = new ManagedSessionCredentials(this);
+    private final ScheduledExecutorService refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "salesforce-session-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Session session;
+    // Guarded by this
+    private CompletableFuture<APISessionCredentials> inFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public SalesforceCredentialManager(SalesforceSessionTokenService sessionTokenService, PubSubConfiguration config,
+                                       PubSubMetrics metrics) {
+        this.sessionTokenService = sessionTokenService;
+        this.authConfig = config.getAuth();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return call credentials that apply the current session to every call, logging in on first use
+     */
+    public CallCredentials getCredentials() {
+        return managedCredentials;
+    }
+
+    /**
+     * @return whether the given credentials are the managed ones returned by {@link #getCredentials()}
+     */
+    public boolean isManaged(CallCredentials callCredentials) {
+        return callCredentials == managedCredentials;
+    }
+
+    /**
+     * Returns the current session, logging in if there is none or it has expired.
+     *
+     * @throws SalesforceLoginException if no session could be obtained
+     */
+    public APISessionCredentials currentSession() {
+        APISessionCredentials credentials = cachedSession();
+        if (credentials != null) {
+            return credentials;
+        }
+        try {
+            return refreshAsync().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof SalesforceLoginException loginException
+                    ? loginException
+                    : new SalesforceLoginException("Failed to obtain Salesforce session", e.getCause());
+        }
+    }
+
+    /**
+     * @return the current session if it has not expired, without logging in
+     */
+    public APISessionCredentials cachedSession() {
+        Session current = session;
+        return current != null && Instant.now().isBefore(current.expiresAt()) ? current.credentials() : null;
+    }
+
+    /**
+     * @return time the current session is assumed to expire, or {@code null} if there is none
+     */
+    public Instant sessionExpiry() {
+        Session current = session;
+        return current == null ? null : current.expiresAt();
+    }
+
+    /**
+     * Starts a token exchange, or joins the one already in progress.
+     */
+    public synchronized CompletableFuture<APISessionCredentials> refreshAsync() {
+        if (inFlight == null || inFlight.isDone()) {
+            inFlight = CompletableFuture.supplyAsync(this::login, refreshScheduler);
+        }
+        return inFlight;
+    }
+
+    /**
+     * Refreshes the session after the server rejected it, unless another caller already did. Joins a token
+     * exchange in progress, and reuses a session obtained within {@code pubsub.auth.min-refresh-interval-seconds},
+     * since a rejection that recent most likely belongs to the previous session. So a burst of rejected calls
+     * leads to a single token exchange.
+     */
+    public synchronized CompletableFuture<APISessionCredentials> refreshIfStale() {
+        Session current = session;
+        if ((inFlight == null || inFlight.isDone()) && current != null && isRecent(current)) {
+            return CompletableFuture.completedFuture(current.credentials());
+        }
+        return refreshAsync();
+    }
+
+    /**
+     * Waits for a session refreshed through {@link #refreshIfStale()}.
+     *
+     * @return {@code true} if a session was obtained
+     */
+    public boolean awaitRefresh() {
+        try {
+            refreshIfStale().join();
+            return true;
+        } catch (CompletionException e) {
+            log.error("Failed to refresh Salesforce session", e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * Called when the server rejects a call with UNAUTHENTICATED. Starts a refresh through
+     * {@link #refreshIfStale()} without waiting for it.
+     */
+    public void onUnauthenticated() {
+        log.warn(LOG_UNAUTHENTICATED);
+        refreshIfStale();
+    }
+
+    private boolean isRecent(Session current) {
+        Duration minInterval = Duration.ofSeconds(authConfig.getMinRefreshIntervalSeconds());
+        return current.acquiredAt().plus(minInterval).isAfter(Instant.now());
+    }
+
+    private APISessionCredentials login() {
+        Timer.Sample sample = Timer.start();
+        try {
+            CallCredentials callCredentials = sessionTokenService.login();
+            if (!(callCredentials instanceof APISessionCredentials credentials)) {
+                throw new SalesforceLoginException("Salesforce did not return a session token");
+            }
+
+            Instant now = Instant.now();
+            Duration ttl = Duration.ofMinutes(authConfig.getSessionTtlMinutes());
+            Duration refreshBefore = Duration.ofMinutes(authConfig.getRefreshBeforeExpiryMinutes());
+            Instant issuedAt = credentials.getIssuedAt() > 0 ? Instant.ofEpochMilli(credentials.getIssuedAt()) : now;
+            if (issuedAt.isAfter(now) || issuedAt.plus(ttl).minus(refreshBefore).isBefore(now)) {
+                // Clock skew between this host and Salesforce; fall back to the local clock
+                issuedAt = now;
+            }
+            Instant expiresAt = issuedAt.plus(ttl);
+            Instant refreshAt = expiresAt.minus(refreshBefore);
+
+            session = new Session(credentials, now, expiresAt);
+            Duration minDelay = Duration.ofSeconds(authConfig.getRefreshRetrySeconds());
+            Duration delay = Duration.between(now, refreshAt);
+            scheduleRefresh(delay.compareTo(minDelay) < 0 ? minDelay : delay);
+            log.info(LOG_SESSION_REFRESHED, refreshAt);
+            sample.stop(metrics.authRefresh(true));
+            return credentials;
+        } catch (RuntimeException e) {
+            sample.stop(metrics.authRefresh(false));
+            // Keep an existing session fresh in the background; a first login is retried by the next caller
+            if (session != null) {
+                log.error(LOG_REFRESH_FAILED, authConfig.getRefreshRetrySeconds(), e);
+                scheduleRefresh(Duration.ofSeconds(authConfig.getRefreshRetrySeconds()));
+            }
+            throw e;
+        }
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = refreshScheduler.schedule(this::refreshAsync, Math.max(0, delay.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshScheduler.shutdownNow();
+    }
+
+    private record Session(APISessionCredentials credentials, Instant acquiredAt, Instant expiresAt) {
+    }
+}
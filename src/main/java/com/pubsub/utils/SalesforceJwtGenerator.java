@@ -20,9 +20,11 @@ import java.util.Date;
 public class SalesforceJwtGenerator {
 
     private final SalesforceJwtConfig jwtConfig;
+    // Parsed once; reading and decoding the PEM is the most expensive part of signing
+    private volatile PrivateKey privateKey;
 
     public String generateToken() throws Exception {
-        PrivateKey privateKey = loadPrivateKey(jwtConfig.getPrivateKeyPath());
+        PrivateKey privateKey = getPrivateKey();
 
         long nowMillis = System.currentTimeMillis();
         Date now = new Date(nowMillis);
@@ -38,6 +40,20 @@ public class SalesforceJwtGenerator {
                 .compact();
     }
 
+    private PrivateKey getPrivateKey() throws Exception {
+        PrivateKey key = privateKey;
+        if (key == null) {
+            synchronized (this) {
+                key = privateKey;
+                if (key == null) {
+                    key = loadPrivateKey(jwtConfig.getPrivateKeyPath());
+                    privateKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
     private PrivateKey loadPrivateKey(String keyOrPath) throws Exception {
         String keyContent;
         if (keyOrPath.contains("-----BEGIN")) {
@@ -36,9 +36,19 @@ public class SalesforceSessionTokenService {
         credentials.setInstanceURL(oAuthResponse.getInstanceUrl());
         credentials.setToken(oAuthResponse.getAccessToken());
         credentials.setTenantId(extractOrganizationId(oAuthResponse.getId()));
+        credentials.setIssuedAt(parseIssuedAt(oAuthResponse.getIssuedAt()));
         return credentials;
     }
 
+    private long parseIssuedAt(String issuedAt) {
+        try {
+            return issuedAt == null ? System.currentTimeMillis() : Long.parseLong(issuedAt);
+        } catch (NumberFormatException e) {
+            log.warn("Unexpected issued_at value in token response: {}", issuedAt);
+            return System.currentTimeMillis();
+        }
+    }
+
     private String extractOrganizationId(String url) {
         if (url == null) return null;
         try {
@@ -0,0 +1,40 @@
+package com.pubsub.utils;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Refreshes the managed Salesforce session whenever a call is rejected with UNAUTHENTICATED,
+ * so that the next call or reconnect uses a valid token.
+ */
+@RequiredArgsConstructor
+public class SessionRefreshClientInterceptor implements ClientInterceptor {
+
+    private final SalesforceCredentialManager credentialManager;
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.UNAUTHENTICATED) {
+                            credentialManager.onUnauthenticated();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package com.pubsub.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Limits how many tasks run at the same time for each topic.
+ *
+ * With virtual threads the executor no longer bounds concurrency, so each topic has a limit that a task
+ * must fit in before it is handed to the executor. Tasks over the limit wait in the topic's queue without
+ * holding a thread, and are submitted as running tasks of the same topic finish, so a busy topic never ties
+ * up pool workers that other topics need.
+ */
+@Slf4j
+public class TopicConcurrencyLimiter {
+
+    private static final String LOG_QUEUED_TASK_REJECTED = "Executor rejected a queued task of topic {}, dropping it";
+
+    private final int maxConcurrentPerTopic;
+    private final Map<String, TopicLimit> limits = new ConcurrentHashMap<>();
+
+    public TopicConcurrencyLimiter(int maxConcurrentPerTopic) {
+        this.maxConcurrentPerTopic = maxConcurrentPerTopic;
+    }
+
+    /**
+     * Overrides the limit of one topic. Takes effect at once, also for executors already returned by
+     * {@link #forTopic}; raising it starts waiting tasks that now fit.
+     */
+    public void setLimit(String topic, int maxConcurrent) {
+        limits.computeIfAbsent(topic, t -> new TopicLimit(t, maxConcurrent)).setMaxConcurrent(maxConcurrent);
+    }
+
+    /**
+     * @return an executor that runs tasks on the delegate, at most the topic's limit at a time
+     */
+    public Executor forTopic(String topic, Executor delegate) {
+        TopicLimit limit = limits.computeIfAbsent(topic, t -> new TopicLimit(t, maxConcurrentPerTopic));
+        return task -> limit.execute(task, delegate);
+    }
+
+    private static final class TopicLimit {
+        private final String topic;
+
+        // Guarded by this
+        private int maxConcurrent;
+
+        // Guarded by this
+        private final Queue<Pending> waiting = new ArrayDeque<>();
+        private int running;
+
+        TopicLimit(String topic, int maxConcurrent) {
+            this.topic = topic;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        /**
+         * Running tasks over a lowered limit finish normally; no new task starts until the topic is below it.
+         */
+        void setMaxConcurrent(int maxConcurrent) {
+            List<Pending> ready = new ArrayList<>();
+            synchronized (this) {
+                this.maxConcurrent = maxConcurrent;
+                while (running < maxConcurrent && !waiting.isEmpty()) {
+                    running++;
+                    ready.add(waiting.poll());
+                }
+            }
+            for (Pending pending : ready) {
+                try {
+                    submit(pending.task(), pending.delegate());
+                } catch (RejectedExecutionException e) {
+                    log.warn(LOG_QUEUED_TASK_REJECTED, topic);
+                    onDone();
+                }
+            }
+        }
+
+        void execute(Runnable task, Executor delegate) {
+            synchronized (this) {
+                if (running >= maxConcurrent) {
+                    waiting.add(new Pending(task, delegate));
+                    return;
+                }
+                running++;
+            }
+            try {
+                submit(task, delegate);
+            } catch (RejectedExecutionException e) {
+                onDone();
+                throw e;
+            }
+        }
+
+        private void submit(Runnable task, Executor delegate) {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    onDone();
+                }
+            });
+        }
+
+        /**
+         * Hands the slot of a finished or rejected task to the next waiting task, if any and if the slot is still
+         * within the limit.
+         */
+        private void onDone() {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = running > maxConcurrent ? null : waiting.poll();
+                    if (next == null) {
+                        running--;
+                        return;
+                    }
+                }
+                try {
+                    submit(next.task(), next.delegate());
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Shutting down; keep the slot for the task after it
+                    log.warn(LOG_QUEUED_TASK_REJECTED, topic);
+                }
+            }
+        }
+    }
+
+    private record Pending(Runnable task, Executor delegate) {
+    }
+}
@@ -5,28 +5,47 @@ import io.grpc.Channel;
 import io.grpc.ClientCall;
 import io.grpc.ClientInterceptor;
 import io.grpc.ForwardingClientCall;
-import io.grpc.ForwardingClientCallListener;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Adds a random {@code x-client-trace-id} header to every call. Stateless, so one instance can be shared.
+ *
+ * Trace IDs only need to be unique, not unpredictable, so they are drawn from {@link ThreadLocalRandom}
+ * instead of {@link UUID#randomUUID()}, which goes through a shared {@code SecureRandom}.
+ */
 @Slf4j
 public class XClientTraceIdClientInterceptor implements ClientInterceptor {
     private static final Metadata.Key<String> X_CLIENT_TRACE_ID = Metadata.Key.of("x-client-trace-id", Metadata.ASCII_STRING_MARSHALLER);
 
+    // Version 4 and IETF variant bits of a random UUID
+    private static final long VERSION_MASK = 0xffffffffffff0fffL;
+    private static final long VERSION_4 = 0x0000000000004000L;
+    private static final long VARIANT_MASK = 0x3fffffffffffffffL;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
         return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
             @Override
             public void start(Listener<RespT> responseListener, Metadata headers) {
-                String xClientTraceId = UUID.randomUUID().toString();
-                headers.put(X_CLIENT_TRACE_ID, xClientTraceId);
-
-                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
-                }, headers);
+                headers.put(X_CLIENT_TRACE_ID, nextTraceId());
+                super.start(responseListener, headers);
             }
         };
     }
+
+    /**
+     * @return a version 4 UUID string from a non-blocking, thread-local generator
+     */
+    static String nextTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSignificant = (random.nextLong() & VERSION_MASK) | VERSION_4;
+        long leastSignificant = (random.nextLong() & VARIANT_MASK) | VARIANT_IETF;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
 }
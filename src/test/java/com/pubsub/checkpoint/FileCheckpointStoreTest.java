@@ -0,0 +1,100 @@
+package com.pubsub.checkpoint;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileCheckpointStoreTest {
+
+    private static final String TOPIC = "/event/LoginEventStream";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void flush_CheckpointsSurviveRestart() {
+        FileCheckpointStore store = store(100);
+        store.save(TOPIC, replayId(1));
+        store.save(TOPIC, replayId(2));
+        store.save("/event/Other__e", replayId(3));
+        store.shutdown();
+
+        FileCheckpointStore reopened = store(100);
+
+        assertThat(reopened.load(TOPIC)).contains(replayId(2));
+        assertThat(reopened.load("/event/Other__e")).contains(replayId(3));
+        reopened.shutdown();
+    }
+
+    @Test
+    void remove_IsPersisted() {
+        FileCheckpointStore store = store(100);
+        store.save(TOPIC, replayId(1));
+        store.flush();
+        store.remove(TOPIC);
+        store.shutdown();
+
+        assertThat(store(100).load(TOPIC)).isEmpty();
+    }
+
+    @Test
+    void load_TornLastRecord_IsIgnored() throws Exception {
+        FileCheckpointStore store = store(100);
+        store.save(TOPIC, replayId(1));
+        store.shutdown();
+        Files.writeString(file(), TOPIC + "\tAAAA", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(store(100).load(TOPIC)).contains(replayId(1));
+    }
+
+    @Test
+    void flush_BeyondCompactionThreshold_RewritesLogWithLatestRecords() throws Exception {
+        FileCheckpointStore store = store(3);
+        for (int i = 1; i <= 5; i++) {
+            store.save(TOPIC, replayId(i));
+            store.flush();
+        }
+        store.shutdown();
+
+        assertThat(Files.readAllLines(file())).hasSizeLessThan(3);
+        assertThat(store(3).load(TOPIC)).contains(replayId(5));
+    }
+
+    @Test
+    void tracker_OutOfOrderCompletion_AdvancesInDeliveryOrder() {
+        InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+        ReplayCheckpointTracker tracker = new ReplayCheckpointTracker(replayId -> store.save(TOPIC, replayId));
+        long first = tracker.register();
+        long second = tracker.register();
+
+        tracker.complete(second, replayId(2));
+        assertThat(store.load(TOPIC)).isEmpty();
+
+        tracker.complete(first, replayId(1));
+        assertThat(store.load(TOPIC)).contains(replayId(2));
+    }
+
+    private FileCheckpointStore store(long compactAfterRecords) {
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getCheckpoint().setFile(file().toString());
+        config.getCheckpoint().setFlushIntervalMs(60000);
+        config.getCheckpoint().setCompactAfterRecords(compactAfterRecords);
+        return new FileCheckpointStore(config);
+    }
+
+    private Path file() {
+        return dir.resolve("checkpoints/replay-ids.log");
+    }
+
+    private static ByteString replayId(int value) {
+        return ByteString.copyFrom(new byte[]{0, 0, 0, (byte) value});
+    }
+}
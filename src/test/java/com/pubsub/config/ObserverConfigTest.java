@@ -0,0 +1,66 @@
+package com.pubsub.config;
+
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.events.IProcessBatchObserver;
+import com.pubsub.events.IProcessEventObserver;
+import com.pubsub.events.ProcessEventManager;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.models.ProcessedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ObserverConfigTest {
+
+    private static final String TOPIC = "/event/Test__e";
+
+    private final ProcessEventManager manager = new ProcessEventManager(new PubSubConfiguration(),
+            new PubSubMetrics(new SimpleMeterRegistry()), mock(DeadLetterSpool.class));
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void registerObservers_TopicInActiveEventsAndSubscriptions_RegistersObserverOnce() {
+        CountingObserver observer = new CountingObserver();
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBeansOfType(IProcessEventObserver.class)).thenReturn(Map.of("countingObserver", observer));
+        when(context.getBeansOfType(IProcessBatchObserver.class)).thenReturn(Map.of());
+        when(context.getBean("countingObserver")).thenReturn(observer);
+        SalesforceSubscribeConfig subscribeConfig = new SalesforceSubscribeConfig();
+        subscribeConfig.setActiveEvents(List.of(TOPIC));
+        SalesforceSubscribeConfig.TopicSubscription subscription = new SalesforceSubscribeConfig.TopicSubscription();
+        subscription.setTopic(TOPIC);
+        subscription.setObservers(List.of("countingObserver"));
+        subscribeConfig.setSubscriptions(List.of(subscription));
+
+        new ObserverConfig(manager, context, subscribeConfig).registerObservers();
+
+        assertThat(manager.notifyObservers(TOPIC, ProcessedEvent.builder().topic(TOPIC).build()))
+                .succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(observer.events).hasValue(1);
+    }
+
+    @Component(TOPIC)
+    static class CountingObserver implements IProcessEventObserver {
+        private final AtomicInteger events = new AtomicInteger();
+
+        @Override
+        public void onEvent(String topic, ProcessedEvent event) {
+            events.incrementAndGet();
+        }
+    }
+}
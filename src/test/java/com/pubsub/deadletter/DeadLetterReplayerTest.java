@@ -0,0 +1,105 @@
+package com.pubsub.deadletter;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.services.Subscribe;
+import com.pubsub.utils.SalesforceCredentialManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class DeadLetterReplayerTest {
+
+    private static final String TOPIC = "/event/LoginEventStream";
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private Subscribe subscribe;
+
+    @Mock
+    private SalesforceCredentialManager credentialManager;
+
+    private DeadLetterSpool spool;
+    private DeadLetterReplayer replayer;
+    private final List<Long> redeliveredAt = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getDeadLetter().setDirectory(dir.toString());
+        spool = new DeadLetterSpool(config, new SimpleMeterRegistry());
+        replayer = new DeadLetterReplayer(spool, subscribe, credentialManager, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replayer.shutdown();
+        spool.shutdown();
+    }
+
+    @Test
+    void replay_LimitsRateAndDeletesReplayedSegment() throws InterruptedException {
+        when(subscribe.redeliver(any(), any())).thenAnswer(invocation -> {
+            redeliveredAt.add(System.nanoTime());
+            return CompletableFuture.completedFuture(null);
+        });
+        for (int i = 0; i < 5; i++) {
+            spool.append(record(i));
+        }
+
+        assertThat(replayer.replay(20)).isTrue();
+        awaitReplayFinished();
+
+        assertThat(replayer.getReplayed()).isEqualTo(5);
+        // Five events at 20 per second are spread over at least four 50 ms intervals
+        assertThat(redeliveredAt.get(4) - redeliveredAt.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(190));
+        assertThat(spool.segments()).isEmpty();
+    }
+
+    @Test
+    void replay_RedeliveryFails_KeepsSegment() throws InterruptedException {
+        when(subscribe.redeliver(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("spool unavailable")));
+        spool.append(record(1));
+        spool.append(record(2));
+
+        assertThat(replayer.replay(1000)).isTrue();
+        awaitReplayFinished();
+
+        List<Path> segments = spool.segments();
+        assertThat(segments).hasSize(1);
+        assertThat(spool.read(segments.get(0))).extracting(DeadLetterRecord::error).containsExactly("error-1", "error-2");
+    }
+
+    private void awaitReplayFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (replayer.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(replayer.isRunning()).isFalse();
+    }
+
+    private static DeadLetterRecord record(int replayId) {
+        return new DeadLetterRecord(1700000000000L + replayId, TOPIC, "schema-1",
+                ByteString.copyFrom(new byte[]{0, 0, 0, (byte) replayId}),
+                ByteString.copyFromUtf8("avro-payload-" + replayId), "LoginEventStreamObserver", "error-" + replayId);
+    }
+}
@@ -0,0 +1,87 @@
+package com.pubsub.deadletter;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeadLetterSpoolTest {
+
+    private static final String TOPIC = "/event/LoginEventStream";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void append_RecordsReadBackFromSealedSegment() {
+        DeadLetterSpool spool = spool(1024 * 1024);
+        DeadLetterRecord failed = record(1, "LoginEventStreamObserver", "java.lang.IllegalStateException: boom\n\tat line");
+        DeadLetterRecord undecodable = record(2, null, "Failed to fetch schema");
+        spool.append(failed);
+        spool.append(undecodable);
+
+        List<Path> segments = spool.sealSegments();
+
+        assertThat(segments).hasSize(1);
+        assertThat(spool.read(segments.get(0))).containsExactly(failed, undecodable);
+    }
+
+    @Test
+    void append_BeyondSegmentSize_StartsNewSegment() {
+        DeadLetterSpool spool = spool(1024);
+        for (int i = 0; i < 20; i++) {
+            spool.append(record(i, "Observer", "x".repeat(100)));
+        }
+
+        List<Path> segments = spool.sealSegments();
+
+        assertThat(segments.size()).isGreaterThan(1);
+        assertThat(segments.stream().mapToInt(segment -> spool.read(segment).size()).sum()).isEqualTo(20);
+    }
+
+    @Test
+    void append_AfterSeal_GoesToNewSegment() {
+        DeadLetterSpool spool = spool(1024 * 1024);
+        spool.append(record(1, "Observer", "first"));
+        Path sealed = spool.sealSegments().get(0);
+
+        spool.append(record(2, "Observer", "second"));
+        spool.delete(sealed);
+
+        List<Path> segments = spool.sealSegments();
+        assertThat(segments).hasSize(1).doesNotContain(sealed);
+        assertThat(spool.read(segments.get(0))).extracting(DeadLetterRecord::error).containsExactly("second");
+    }
+
+    @Test
+    void read_TornLastRecord_IsIgnored() throws Exception {
+        DeadLetterSpool spool = spool(1024 * 1024);
+        spool.append(record(1, "Observer", "complete"));
+        Path segment = spool.sealSegments().get(0);
+        Files.writeString(segment, "1\t" + TOPIC + "\tschema", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(spool.read(segment)).hasSize(1);
+    }
+
+    private DeadLetterSpool spool(long segmentMaxBytes) {
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getDeadLetter().setDirectory(dir.toString());
+        config.getDeadLetter().setSegmentMaxBytes(segmentMaxBytes);
+        return new DeadLetterSpool(config, new SimpleMeterRegistry());
+    }
+
+    private static DeadLetterRecord record(int replayId, String observer, String error) {
+        return new DeadLetterRecord(1700000000000L + replayId, TOPIC, "schema-" + replayId,
+                ByteString.copyFrom(new byte[]{0, 0, 0, (byte) replayId}),
+                ByteString.copyFromUtf8("avro-payload-" + replayId), observer, error);
+    }
+}
@@ -0,0 +1,250 @@
+package com.pubsub.events;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.deadletter.DeadLetterRecord;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.models.ProcessedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+public class ProcessEventManagerTest {
+
+    private static final String TOPIC = "/data/AccountChangeEvent";
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"AccountChangeEvent\",\"fields\":["
+                    + "{\"name\":\"RecordId\",\"type\":\"string\"},"
+                    + "{\"name\":\"Sequence\",\"type\":\"int\"}]}");
+
+    private ProcessEventManager manager;
+
+    @Mock
+    private DeadLetterSpool deadLetters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void notifyObservers_SameKey_DeliveredInOrder() {
+        manager = new ProcessEventManager(config(4), new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        manager.registerObserver(TOPIC, (topic, event) -> {
+            sleepBriefly();
+            seen.computeIfAbsent(event.getRecord().get("RecordId").toString(), key -> new CopyOnWriteArrayList<>())
+                    .add((Integer) event.getRecord().get("Sequence"));
+        });
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 20)
+                .mapToObj(i -> manager.notifyObservers(TOPIC, event("record-" + (i % 2), i)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        assertThat(seen.get("record-0")).isSorted().hasSize(10);
+        assertThat(seen.get("record-1")).isSorted().hasSize(10);
+    }
+
+    @Test
+    void notifyObservers_DifferentKeys_RunInParallel() throws Exception {
+        manager = new ProcessEventManager(config(64), new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        manager.registerObserver(TOPIC, (topic, event) -> {
+            bothStarted.countDown();
+            try {
+                bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Keys that hash to different lanes
+        CompletableFuture<Void> first = manager.notifyObservers(TOPIC, event("a", 0));
+        CompletableFuture<Void> second = manager.notifyObservers(TOPIC, event("b", 1));
+
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(bothStarted.getCount()).isZero();
+    }
+
+    @Test
+    void notifyObservers_FailingObserver_CompletesNormallyAndDeadLetters() {
+        manager = new ProcessEventManager(config(4), new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        manager.registerObserver(TOPIC, new FailingObserver());
+
+        assertThat(manager.notifyObservers(TOPIC, event("a", 0))).succeedsWithin(5, TimeUnit.SECONDS);
+        ArgumentCaptor<DeadLetterRecord> record = ArgumentCaptor.forClass(DeadLetterRecord.class);
+        verify(deadLetters).append(record.capture());
+        assertThat(record.getValue().topic()).isEqualTo(TOPIC);
+        assertThat(record.getValue().observer()).isEqualTo("FailingObserver");
+        assertThat(record.getValue().error()).contains("boom");
+    }
+
+    @Test
+    void registerObserver_SameObserverTwiceForTopic_IsRejected() {
+        manager = new ProcessEventManager(config(4), new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        manager.registerObserver(TOPIC, new FailingObserver());
+
+        assertThatThrownBy(() -> manager.registerObserver(TOPIC, new FailingObserver()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("FailingObserver");
+        manager.registerObserver("/data/ContactChangeEvent", new FailingObserver());
+    }
+
+    @Test
+    void notifyObservers_BatchObserver_CoalescesBySizeAndWait() {
+        PubSubConfiguration config = config(4);
+        config.getEventProcessing().setBatchObserverMaxSize(5);
+        config.getEventProcessing().setBatchObserverMaxWaitMs(50);
+        manager = new ProcessEventManager(config, new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        manager.registerBatchObserver(TOPIC, (topic, events) -> batchSizes.add(events.size()));
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 7)
+                .mapToObj(i -> manager.notifyObservers(TOPIC, event("record-" + i, i)))
+                .toArray(CompletableFuture[]::new);
+
+        assertThat(CompletableFuture.allOf(futures)).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(batchSizes).containsExactly(5, 2);
+    }
+
+    @Test
+    void notifyObservers_BatchObserver_KeepsOrderPerKey() {
+        PubSubConfiguration config = config(4);
+        config.getEventProcessing().setBatchObserverMaxSize(3);
+        manager = new ProcessEventManager(config, new PubSubMetrics(new SimpleMeterRegistry()), deadLetters);
+        List<Integer> sequences = new CopyOnWriteArrayList<>();
+        manager.registerBatchObserver(TOPIC, (topic, events) ->
+                events.forEach(event -> sequences.add((Integer) event.getRecord().get("Sequence"))));
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 30)
+                .mapToObj(i -> manager.notifyObservers(TOPIC, event("record-0", i)))
+                .toArray(CompletableFuture[]::new);
+
+        assertThat(CompletableFuture.allOf(futures)).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(sequences).hasSize(30).isSorted();
+    }
+
+    @Test
+    void notifyObservers_HungObserver_ReportsTimeoutAndKeepsOrderWithoutHoldingBackOthers() throws Exception {
+        PubSubConfiguration config = config(4);
+        config.getEventProcessing().setObserverTimeoutMs(200);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        manager = new ProcessEventManager(config, new PubSubMetrics(meterRegistry), deadLetters);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(3);
+        List<Integer> slowOrder = new CopyOnWriteArrayList<>();
+        manager.registerObserver(TOPIC, (topic, event) -> {
+            awaitQuietly(release);
+            slowOrder.add((Integer) event.getRecord().get("Sequence"));
+        });
+        manager.registerObserver(TOPIC, (topic, event) -> fastDone.countDown());
+
+        try {
+            CompletableFuture<?>[] futures = IntStream.range(0, 3)
+                    .mapToObj(i -> manager.notifyObservers(TOPIC, event("record-0", i)))
+                    .toArray(CompletableFuture[]::new);
+
+            assertThat(fastDone.await(1, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(500);
+            assertThat(count(meterRegistry, "pubsub.observer.timeouts")).isEqualTo(1);
+            assertThat(slowOrder).isEmpty();
+            assertThat(futures[0]).isNotDone();
+
+            release.countDown();
+            assertThat(CompletableFuture.allOf(futures)).succeedsWithin(5, TimeUnit.SECONDS);
+            assertThat(slowOrder).containsExactly(0, 1, 2);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void notifyObservers_ObserverQueueFull_RejectsForThatObserverOnly() {
+        PubSubConfiguration config = config(4);
+        config.getEventProcessing().setObserverMaxQueued(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        manager = new ProcessEventManager(config, new PubSubMetrics(meterRegistry), deadLetters);
+        CountDownLatch release = new CountDownLatch(1);
+        manager.registerObserver(TOPIC, (topic, event) -> awaitQuietly(release));
+
+        CompletableFuture<?>[] futures = IntStream.range(0, 5)
+                .mapToObj(i -> manager.notifyObservers(TOPIC, event("record-0", i)))
+                .toArray(CompletableFuture[]::new);
+
+        assertThat(count(meterRegistry, "pubsub.observer.rejections")).isEqualTo(3);
+        assertThat(meterRegistry.get("pubsub.observer.queued").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("pubsub.events.failed").tag("stage", "observer").counter().count()).isEqualTo(3);
+        assertThat(futures[4]).isDone();
+        assertThat(futures[0]).isNotDone();
+        release.countDown();
+        assertThat(CompletableFuture.allOf(futures)).succeedsWithin(5, TimeUnit.SECONDS);
+    }
+
+    private static double count(SimpleMeterRegistry meterRegistry, String name) {
+        return meterRegistry.get(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FailingObserver implements IProcessEventObserver {
+        @Override
+        public void onEvent(String topic, ProcessedEvent event) {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    private static PubSubConfiguration config(int lanes) {
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getEventProcessing().setDispatchLanes(lanes);
+        config.getEventProcessing().setPartitionKey(PubSubConfiguration.PartitionKey.FIELD);
+        config.getEventProcessing().setPartitionField("RecordId");
+        return config;
+    }
+
+    private static ProcessedEvent event(String recordId, int sequence) {
+        return ProcessedEvent.builder()
+                .topic(TOPIC)
+                .record(new GenericRecordBuilder(SCHEMA).set("RecordId", recordId).set("Sequence", sequence).build())
+                .build();
+    }
+
+    private static void sleepBriefly() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.pubsub.models;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.events.ProcessEventManager;
+import com.pubsub.metrics.PubSubMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ProcessedEventTest {
+
+    private static final String TOPIC = "/event/Test__e";
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":[{\"name\":\"Name\",\"type\":\"string\"}]}");
+
+    @Test
+    void getPayload_SeveralObservers_RendersRecordOnce() {
+        AtomicInteger renders = new AtomicInteger();
+        GenericData.Record record = new GenericData.Record(SCHEMA) {
+            @Override
+            public String toString() {
+                renders.incrementAndGet();
+                return super.toString();
+            }
+        };
+        record.put("Name", "first");
+        List<String> payloads = new CopyOnWriteArrayList<>();
+        // Observers read the payload at the same time
+        CountDownLatch started = new CountDownLatch(3);
+        ProcessEventManager manager = new ProcessEventManager(new PubSubConfiguration(),
+                new PubSubMetrics(new SimpleMeterRegistry()), mock(DeadLetterSpool.class));
+        try {
+            manager.registerObserver(TOPIC, (topic, event) -> payloads.add(await(started, event)));
+            manager.registerObserver(TOPIC, (topic, event) -> payloads.add(await(started, event)));
+            manager.registerObserver(TOPIC, (topic, event) -> payloads.add(await(started, event)));
+            ProcessedEvent event = ProcessedEvent.builder().topic(TOPIC).record(record).build();
+
+            CompletableFuture<Void> done = manager.notifyObservers(TOPIC, event);
+
+            assertThat(done).succeedsWithin(5, TimeUnit.SECONDS);
+            assertThat(payloads).hasSize(3).allMatch(payload -> payload.contains("first"));
+            assertThat(renders).hasValue(1);
+            assertThat(IntStream.range(0, 3).mapToObj(i -> event.getPayload())).allMatch(payloads.get(0)::equals);
+            assertThat(renders).hasValue(1);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private static String await(CountDownLatch started, ProcessedEvent event) {
+        started.countDown();
+        try {
+            started.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return event.getPayload();
+    }
+}
@@ -0,0 +1,134 @@
+package com.pubsub.services;
+
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChannelPoolTest {
+
+    private final List<ManagedChannel> created = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ClientCall<Object, Object> lastCall;
+
+    @Test
+    void forUnary_SpreadsCallsRoundRobin() {
+        ChannelPool<Channel> pool = new ChannelPool<>(3, 100, this::channel, Function.identity(), meterRegistry);
+
+        for (int i = 0; i < 6; i++) {
+            pool.forUnary().newCall(PubSubGrpc.getPublishMethod(), CallOptions.DEFAULT);
+        }
+
+        assertThat(created).hasSize(3);
+        created.forEach(channel -> verify(channel, times(2)).newCall(any(), any()));
+        assertThat(meterRegistry.get("pubsub.grpc.channel.calls").tag("type", "unary").counters()).hasSize(3);
+    }
+
+    @Test
+    void openStream_PicksLeastLoadedChannelUntilStreamsClose() {
+        ChannelPool<Channel> pool = new ChannelPool<>(2, 100, this::channel, Function.identity(), meterRegistry);
+
+        ClientCall.Listener<?> first = pool.openStream(this::startStream);
+        pool.openStream(this::startStream);
+        pool.openStream(this::startStream);
+        assertThat(pool.getStreamCounts()).containsExactly(2, 1);
+
+        first.onClose(Status.UNAVAILABLE, new Metadata());
+
+        assertThat(pool.getStreamCounts()).containsExactly(1, 1);
+    }
+
+    @Test
+    void openStream_AllChannelsAtLimit_FailsUntilStreamCloses() {
+        ChannelPool<Channel> pool = new ChannelPool<>(2, 1, this::channel, Function.identity(), meterRegistry);
+        ClientCall.Listener<?> first = pool.openStream(this::startStream);
+        pool.openStream(this::startStream);
+
+        assertThatThrownBy(() -> pool.openStream(this::startStream))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED));
+
+        first.onClose(Status.OK, new Metadata());
+        pool.openStream(this::startStream);
+        assertThat(pool.getStreamCounts()).containsExactly(1, 1);
+    }
+
+    @Test
+    void openStream_NoStreamOpened_ReleasesSlot() {
+        ChannelPool<Channel> pool = new ChannelPool<>(1, 1, this::channel, Function.identity(), meterRegistry);
+
+        pool.openStream(channel -> null);
+        assertThatThrownBy(() -> pool.openStream(channel -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(pool.getStreamCounts()).containsExactly(0);
+        pool.openStream(this::startStream);
+        assertThat(pool.getStreamCounts()).containsExactly(1);
+    }
+
+    @Test
+    void openStream_StreamOpenedOutsideReservation_DoesNotTakeReservedSlot() {
+        ChannelPool<Channel> pool = new ChannelPool<>(1, 100, this::channel, Function.identity(), meterRegistry);
+        Channel channel = pool.forUnary();
+
+        pool.openStream(reserved -> {
+            startStream(channel);
+            return startStream(reserved);
+        });
+        startStream(channel);
+
+        assertThat(pool.getStreamCounts()).containsExactly(3);
+    }
+
+    @Test
+    void forUnary_ChannelShutDown_ReplacesChannelAndStubs() {
+        ChannelPool<List<Channel>> pool = new ChannelPool<>(1, 100, this::channel, List::of, meterRegistry);
+        List<Channel> first = pool.forUnary();
+        assertThat(pool.forUnary()).isSameAs(first);
+
+        when(created.get(0).isShutdown()).thenReturn(true);
+
+        assertThat(pool.forUnary()).isNotSameAs(first);
+        assertThat(created).hasSize(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClientCall.Listener<?> startStream(Channel channel) {
+        ClientCall<Object, Object> call = (ClientCall<Object, Object>) (ClientCall<?, ?>) channel.newCall(PubSubGrpc.getSubscribeMethod(), CallOptions.DEFAULT);
+        call.start(mock(ClientCall.Listener.class), new Metadata());
+        ArgumentCaptor<ClientCall.Listener<Object>> listener = ArgumentCaptor.forClass(ClientCall.Listener.class);
+        verify(lastCall).start(listener.capture(), any());
+        return listener.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ManagedChannel channel() {
+        ManagedChannel channel = mock(ManagedChannel.class);
+        when(channel.newCall(any(), any())).thenAnswer(invocation -> {
+            lastCall = mock(ClientCall.class);
+            return lastCall;
+        });
+        created.add(channel);
+        return channel;
+    }
+}
@@ -0,0 +1,97 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventRingBufferTest {
+
+    private static final ConsumerEvent EVENT = ConsumerEvent.getDefaultInstance();
+
+    @Test
+    void constructor_RoundsCapacityUpToPowerOfTwo() {
+        assertThat(new EventRingBuffer(100, PubSubConfiguration.WaitStrategy.BLOCKING).capacity()).isEqualTo(128);
+        assertThat(new EventRingBuffer(64, PubSubConfiguration.WaitStrategy.BLOCKING).capacity()).isEqualTo(64);
+    }
+
+    @Test
+    void poll_WrapsAroundInPublishOrder() {
+        EventRingBuffer ring = new EventRingBuffer(4, PubSubConfiguration.WaitStrategy.BLOCKING);
+        List<Long> taken = new ArrayList<>();
+
+        for (long i = 0; i < 10; i++) {
+            ring.publish(EVENT, "rpc", i);
+            assertThat(ring.size()).isEqualTo(1);
+            assertThat(ring.poll((event, rpcId, tag) -> taken.add(tag))).isTrue();
+        }
+
+        assertThat(ring.poll((event, rpcId, tag) -> taken.add(tag))).isFalse();
+        assertThat(taken).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    void publish_RingFull_OverflowsWithoutWaitingAndKeepsOrder() {
+        EventRingBuffer ring = new EventRingBuffer(2, PubSubConfiguration.WaitStrategy.BLOCKING);
+        List<Long> taken = new ArrayList<>();
+
+        for (long i = 0; i < 5; i++) {
+            ring.publish(EVENT, "rpc", i);
+        }
+        assertThat(ring.size()).isEqualTo(5);
+        ring.publish(EVENT, "rpc", 5);
+
+        while (ring.poll((event, rpcId, tag) -> taken.add(tag))) {
+            // Drain
+        }
+        assertThat(taken).containsExactly(0L, 1L, 2L, 3L, 4L, 5L);
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(PubSubConfiguration.WaitStrategy.class)
+    void poll_ConcurrentConsumers_TakeEachEventOnce(PubSubConfiguration.WaitStrategy waitStrategy) throws Exception {
+        EventRingBuffer ring = new EventRingBuffer(8, waitStrategy);
+        int events = 2000;
+        Set<Long> taken = ConcurrentHashMap.newKeySet();
+        AtomicBoolean duplicate = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+
+        List<Thread> consumers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            consumers.add(Thread.ofPlatform().start(() -> {
+                int idle = 0;
+                while (!done.get() || !ring.isEmpty()) {
+                    if (ring.poll((event, rpcId, tag) -> duplicate.compareAndSet(false, !taken.add(tag)))) {
+                        idle = 0;
+                    } else {
+                        ring.awaitEvents(idle++);
+                    }
+                }
+            }));
+        }
+
+        // The ring is much smaller than the number of events, so the producer has to wait for free slots
+        for (long i = 0; i < events; i++) {
+            ring.publish(EVENT, "rpc", i);
+        }
+        done.set(true);
+        ring.signalAll();
+        for (Thread consumer : consumers) {
+            consumer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertThat(duplicate).isFalse();
+        assertThat(taken).hasSize(events);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pubsub.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FetchCreditControllerTest {
+
+    private final FetchCreditController credits = new FetchCreditController(100, 25);
+
+    @Test
+    void initialCredits_FillUpToHighWatermark() {
+        assertThat(credits.initialCredits()).isEqualTo(100);
+        assertThat(credits.getOutstanding()).isEqualTo(100);
+    }
+
+    @Test
+    void onReceived_AboveLowWatermark_GrantsNothing() {
+        credits.initialCredits();
+
+        assertThat(credits.onReceived(50, 50)).isZero();
+        assertThat(credits.getBuffered()).isEqualTo(50);
+        assertThat(credits.getOutstanding()).isEqualTo(50);
+    }
+
+    @Test
+    void onConsumed_AtLowWatermark_TopsUpToHighWatermark() {
+        credits.initialCredits();
+        credits.onReceived(100, 0);
+
+        assertThat(credits.onConsumed(74)).isZero();
+        assertThat(credits.onConsumed(1)).isEqualTo(75);
+        assertThat(credits.getOutstanding() + credits.getBuffered()).isEqualTo(100);
+    }
+
+    @Test
+    void onReceived_ServerCountLagging_KeepsRequestsInFlightOutstanding() {
+        credits.initialCredits();
+        credits.onReceived(100, 0);
+        credits.onConsumed(75);
+
+        // The server has not seen the top-up yet and reports nothing pending
+        assertThat(credits.onReceived(0, 0)).isZero();
+        assertThat(credits.getOutstanding()).isEqualTo(75);
+        assertThat(credits.onConsumed(1)).isZero();
+    }
+
+    @Test
+    void onRequestFailed_ReturnsCredits() {
+        credits.initialCredits();
+        credits.onRequestFailed(100);
+
+        assertThat(credits.onConsumed(0)).isEqualTo(100);
+    }
+
+    @Test
+    void constructor_LowWatermarkNotBelowHigh_Throws() {
+        assertThatThrownBy(() -> new FetchCreditController(10, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
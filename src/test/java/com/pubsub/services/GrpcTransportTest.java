@@ -0,0 +1,153 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import com.salesforce.eventbus.protobuf.TopicInfo;
+import com.salesforce.eventbus.protobuf.TopicRequest;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GrpcTransportTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void serviceConfig_HedgesLookupsOnly() {
+        PubSubConfiguration.GrpcConfig grpc = new PubSubConfiguration.GrpcConfig();
+        grpc.setHedgingEnabled(true);
+        grpc.setPublishDeadlineMs(1500);
+
+        List<?> methodConfigs = (List<?>) GrpcTransport.serviceConfig(grpc).get("methodConfig");
+
+        assertThat(methodConfigs).hasSize(3);
+        assertThat((Map<String, Object>) methodConfigs.get(0)).containsKey("hedgingPolicy");
+        assertThat((Map<String, Object>) methodConfigs.get(1)).containsKey("hedgingPolicy");
+        assertThat((Map<String, Object>) methodConfigs.get(2))
+                .doesNotContainKey("hedgingPolicy")
+                .containsEntry("timeout", "1.500s");
+    }
+
+    @Test
+    void newChannel_WithTransportOptionsSet_ConnectsToServer() throws Exception {
+        PubSubConfiguration config = new PubSubConfiguration();
+        PubSubConfiguration.GrpcConfig grpc = config.getGrpc();
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            grpc.setHost(listener.getInetAddress().getHostAddress());
+            grpc.setPort(listener.getLocalPort());
+            grpc.setEpollEnabled(false);
+            grpc.setEventLoopThreads(1);
+            grpc.setKeepAliveTimeSeconds(300);
+            grpc.setKeepAliveTimeoutSeconds(10);
+            grpc.setKeepAliveWithoutCalls(true);
+            grpc.setInitialFlowControlWindowBytes(2 * 1024 * 1024);
+            grpc.setFlowControlAutoTuning(false);
+            GrpcTransport transport = new GrpcTransport(config);
+            try {
+                channel = transport.newChannel();
+                listener.setSoTimeout(5000);
+
+                channel.getState(true);
+
+                try (Socket accepted = listener.accept()) {
+                    assertThat(accepted.isConnected()).isTrue();
+                }
+            } finally {
+                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+                transport.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void hedging_UsesFirstResponse_WhenFirstAttemptStalls() throws Exception {
+        PubSubConfiguration.GrpcConfig grpc = new PubSubConfiguration.GrpcConfig();
+        grpc.setHedgingEnabled(true);
+        grpc.setHedgingDelayMs(50);
+        startServer();
+
+        TopicInfo topic = PubSubGrpc.newBlockingStub(channel(grpc))
+                .getTopic(TopicRequest.newBuilder().setTopicName("/event/Test__e").build());
+
+        assertThat(topic.getTopicName()).isEqualTo("/event/Test__e");
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void deadline_FailsStalledCall() throws Exception {
+        PubSubConfiguration.GrpcConfig grpc = new PubSubConfiguration.GrpcConfig();
+        grpc.setGetTopicDeadlineMs(100);
+        startServer();
+        ManagedChannel connected = channel(grpc);
+        // Connect first, so that the deadline is spent on the call
+        while (connected.getState(true) != ConnectivityState.READY) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> PubSubGrpc.newBlockingStub(connected)
+                .getTopic(TopicRequest.newBuilder().setTopicName("/event/Test__e").build()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        // Not hedged; the server may not have seen the attempt yet
+        assertThat(attempts.get()).isLessThanOrEqualTo(1);
+    }
+
+    /**
+     * Starts a server whose first GetTopic attempt never responds.
+     */
+    private void startServer() throws Exception {
+        server = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+                .addService(new PubSubGrpc.PubSubImplBase() {
+                    @Override
+                    public void getTopic(TopicRequest request, StreamObserver<TopicInfo> responseObserver) {
+                        if (attempts.incrementAndGet() > 1) {
+                            responseObserver.onNext(TopicInfo.newBuilder().setTopicName(request.getTopicName()).build());
+                            responseObserver.onCompleted();
+                        }
+                    }
+                })
+                .build()
+                .start();
+    }
+
+    private ManagedChannel channel(PubSubConfiguration.GrpcConfig grpc) {
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort())
+                .usePlaintext()
+                .defaultServiceConfig(GrpcTransport.serviceConfig(grpc))
+                .enableRetry()
+                .build();
+        return channel;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pubsub.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InOrderHandOffTest {
+
+    @Test
+    void submit_OutOfOrderFromSeveralThreads_RunsInSequenceOrder() {
+        InOrderHandOff handOff = new InOrderHandOff();
+        List<Long> ran = Collections.synchronizedList(new ArrayList<>());
+        List<Long> sequences = LongStream.range(0, 1000).boxed().collect(Collectors.toCollection(ArrayList::new));
+        Collections.shuffle(sequences);
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture<?>[] submitted = sequences.stream()
+                    .map(sequence -> CompletableFuture.runAsync(() -> handOff.submit(sequence, () -> ran.add(sequence)), threads))
+                    .toArray(CompletableFuture[]::new);
+
+            assertThat(CompletableFuture.allOf(submitted)).succeedsWithin(5, TimeUnit.SECONDS);
+            assertThat(ran).hasSize(1000).isSorted();
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
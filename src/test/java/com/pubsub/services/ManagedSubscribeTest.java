@@ -0,0 +1,144 @@
+package com.pubsub.services;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.CommitReplayResponse;
+import com.salesforce.eventbus.protobuf.ConsumerEvent;
+import com.salesforce.eventbus.protobuf.ManagedFetchRequest;
+import com.salesforce.eventbus.protobuf.ManagedFetchResponse;
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ManagedSubscribeTest {
+
+    private static final String SUBSCRIPTION = "Test_Managed_Subscription";
+    private static final String TOPIC = "/event/Test__e";
+
+    private ManagedSubscribe managedSubscribe;
+    private SimpleMeterRegistry meterRegistry;
+    private SubscriptionSupervisor supervisor;
+
+    @Mock
+    private IPubSubService pubSubService;
+
+    @Mock
+    private PubSubGrpc.PubSubStub asyncStub;
+
+    @Mock
+    private StreamObserver<ManagedFetchRequest> requestObserver;
+
+    @Mock
+    private Subscribe subscribe;
+
+    @Mock
+    private SalesforceCredentialManager credentialManager;
+
+    private ArgumentCaptor<StreamObserver<ManagedFetchResponse>> responseObserver;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        responseObserver = ArgumentCaptor.forClass(StreamObserver.class);
+        when(pubSubService.openStream(any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<PubSubGrpc.PubSubStub, ?>>getArgument(1).apply(asyncStub));
+        when(asyncStub.managedSubscribe(responseObserver.capture())).thenReturn(requestObserver);
+        when(subscribe.decodeEvent(any(), any(), any(), any())).thenReturn(() -> CompletableFuture.completedFuture(null));
+
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getManagedSubscribe().setCommitBatchSize(3);
+        config.getManagedSubscribe().setCommitIntervalMs(60000);
+        meterRegistry = new SimpleMeterRegistry();
+        supervisor = new SubscriptionSupervisor(config, meterRegistry);
+        managedSubscribe = new ManagedSubscribe(pubSubService, config, credentialManager, subscribe, meterRegistry, supervisor,
+                new PubSubMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        managedSubscribe.shutdown();
+        supervisor.shutdown();
+    }
+
+    @Test
+    void startManagedSubscription_FirstRequestNamesSubscription() {
+        managedSubscribe.startManagedSubscription(SUBSCRIPTION, TOPIC, 10, null);
+
+        ArgumentCaptor<ManagedFetchRequest> request = ArgumentCaptor.forClass(ManagedFetchRequest.class);
+        verify(requestObserver, times(10)).onNext(request.capture());
+        assertThat(request.getAllValues().get(0).getDeveloperName()).isEqualTo(SUBSCRIPTION);
+        assertThat(request.getAllValues().get(1).getDeveloperName()).isEmpty();
+        assertThat(request.getAllValues()).allMatch(r -> r.getNumRequested() == 10);
+    }
+
+    @Test
+    void processedEvents_CommittedInBatchAndLagClearedOnResponse() {
+        managedSubscribe.startManagedSubscription(SUBSCRIPTION, TOPIC, 100, null);
+
+        responseObserver.getValue().onNext(ManagedFetchResponse.newBuilder()
+                .addAllEvents(IntStream.rangeClosed(1, 3).mapToObj(ManagedSubscribeTest::event).toList())
+                .setRpcId("rpc-1")
+                .build());
+
+        verify(subscribe, timeout(5000).times(3)).decodeEvent(any(), eq(TOPIC), eq("rpc-1"), any());
+        ManagedFetchRequest commit = awaitCommit();
+        assertThat(commit.getCommitReplayIdRequest().getReplayId()).isEqualTo(replayId(3));
+        assertThat(lag()).isEqualTo(3);
+
+        responseObserver.getValue().onNext(ManagedFetchResponse.newBuilder()
+                .setCommitResponse(CommitReplayResponse.newBuilder()
+                        .setCommitRequestId(commit.getCommitReplayIdRequest().getCommitRequestId())
+                        .setReplayId(replayId(3)))
+                .build());
+
+        assertThat(lag()).isZero();
+        assertThat(meterRegistry.get("pubsub.managed.commit.latency").timer().count()).isEqualTo(1);
+    }
+
+    private ManagedFetchRequest awaitCommit() {
+        verify(requestObserver, timeout(5000)).onNext(argThat(ManagedFetchRequest::hasCommitReplayIdRequest));
+        ArgumentCaptor<ManagedFetchRequest> request = ArgumentCaptor.forClass(ManagedFetchRequest.class);
+        verify(requestObserver, atLeastOnce()).onNext(request.capture());
+        List<ManagedFetchRequest> commits = request.getAllValues().stream()
+                .filter(ManagedFetchRequest::hasCommitReplayIdRequest)
+                .toList();
+        assertThat(commits).hasSize(1);
+        return commits.get(0);
+    }
+
+    private double lag() {
+        return meterRegistry.get("pubsub.managed.commit.lag").tag("subscription", SUBSCRIPTION).gauge().value();
+    }
+
+    private static ConsumerEvent event(int replayId) {
+        return ConsumerEvent.newBuilder().setReplayId(replayId(replayId)).build();
+    }
+
+    private static ByteString replayId(int value) {
+        return ByteString.copyFrom(new byte[]{0, 0, 0, (byte) value});
+    }
+}
@@ -0,0 +1,132 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+import com.salesforce.eventbus.protobuf.PublishRequest;
+import com.salesforce.eventbus.protobuf.PublishResponse;
+import com.salesforce.eventbus.protobuf.PublishResult;
+import com.salesforce.eventbus.protobuf.SchemaInfo;
+import io.grpc.CallCredentials;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PublishAccumulatorTest {
+
+    private static final String TOPIC = "/event/Test__e";
+
+    private PublishAccumulator accumulator;
+    private PubSubConfiguration config;
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Mock
+    private Publish publish;
+
+    @Mock
+    private TopicSchema topicSchema;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        config = new PubSubConfiguration();
+        config.getPublish().setBatchMaxEvents(3);
+        config.getPublish().setBatchLingerMs(60000);
+
+        SchemaInfo schemaInfo = SchemaInfo.newBuilder().setSchemaId("schema").build();
+        when(topicSchema.getSchemaInfo(any(), any())).thenReturn(schemaInfo);
+        when(publish.generateProducerEvent(any(), any())).thenAnswer(invocation -> ProducerEvent.newBuilder()
+                .setId("event-" + ids.incrementAndGet())
+                .setSchemaId("schema")
+                .build());
+        accumulator = new PublishAccumulator(publish, topicSchema, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accumulator.shutdown();
+    }
+
+    @Test
+    void add_BatchReachesMaxEvents_SendsOneRequestAndRoutesResults() {
+        CompletableFuture<PublishResponse> response = new CompletableFuture<>();
+        ArgumentCaptor<PublishRequest> request = ArgumentCaptor.forClass(PublishRequest.class);
+        when(publish.publishRequestAsync(request.capture(), any(), any())).thenReturn(response);
+
+        CompletableFuture<PublishResult> first = accumulator.add(TOPIC, mock(GenericRecord.class), null);
+        CompletableFuture<PublishResult> second = accumulator.add(TOPIC, mock(GenericRecord.class), null);
+        verify(publish, never()).publishRequestAsync(any(), any(), any());
+
+        CompletableFuture<PublishResult> third = accumulator.add(TOPIC, mock(GenericRecord.class), null);
+        assertThat(request.getValue().getEventsCount()).isEqualTo(3);
+
+        response.complete(PublishResponse.newBuilder()
+                .addAllResults(List.of(result("event-3"), result("event-1"), result("event-2")))
+                .build());
+
+        assertThat(first.join().getCorrelationKey()).isEqualTo("event-1");
+        assertThat(second.join().getCorrelationKey()).isEqualTo("event-2");
+        assertThat(third.join().getCorrelationKey()).isEqualTo("event-3");
+    }
+
+    @Test
+    void add_LingerExpires_SendsPartialBatch() {
+        config.getPublish().setBatchLingerMs(10);
+        when(publish.publishRequestAsync(any(), any(), any())).thenReturn(new CompletableFuture<>());
+
+        accumulator.add(TOPIC, mock(GenericRecord.class), null);
+
+        verify(publish, timeout(TimeUnit.SECONDS.toMillis(5))).publishRequestAsync(any(), any(), any());
+    }
+
+    @Test
+    void add_BatchFails_FailsEveryCaller() {
+        when(publish.publishRequestAsync(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+
+        CompletableFuture<PublishResult> first = accumulator.add(TOPIC, mock(GenericRecord.class), null);
+        accumulator.flush();
+
+        assertThat(first).isCompletedExceptionally();
+    }
+
+    @Test
+    void add_DifferentCredentials_PublishedInSeparateBatches() {
+        CallCredentials orgA = mock(CallCredentials.class);
+        CallCredentials orgB = mock(CallCredentials.class);
+        ArgumentCaptor<PublishRequest> request = ArgumentCaptor.forClass(PublishRequest.class);
+        ArgumentCaptor<CallCredentials> credentials = ArgumentCaptor.forClass(CallCredentials.class);
+        when(publish.publishRequestAsync(request.capture(), credentials.capture(), any())).thenReturn(new CompletableFuture<>());
+
+        accumulator.add(TOPIC, mock(GenericRecord.class), orgA);
+        accumulator.add(TOPIC, mock(GenericRecord.class), orgB);
+        accumulator.add(TOPIC, mock(GenericRecord.class), orgA);
+        accumulator.flush();
+
+        assertThat(credentials.getAllValues()).containsExactlyInAnyOrder(orgA, orgB);
+        for (int i = 0; i < 2; i++) {
+            List<String> ids = request.getAllValues().get(i).getEventsList().stream().map(ProducerEvent::getId).toList();
+            assertThat(ids).isEqualTo(credentials.getAllValues().get(i) == orgA ? List.of("event-1", "event-3") : List.of("event-2"));
+        }
+    }
+
+    private static PublishResult result(String correlationKey) {
+        return PublishResult.newBuilder().setCorrelationKey(correlationKey).build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import com.salesforce.eventbus.protobuf.Error;
+import com.salesforce.eventbus.protobuf.ErrorCode;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+import com.salesforce.eventbus.protobuf.PublishRequest;
+import com.salesforce.eventbus.protobuf.PublishResponse;
+import com.salesforce.eventbus.protobuf.PublishResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PublishTest {
+
+    private RetryEngine retryEngine;
+    private Publish publish;
+    private final List<PublishRequest> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getRetry().setInitialBackoffMs(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        retryEngine = new RetryEngine(config, meterRegistry);
+        publish = new Publish(null, null, null, null, null, config, retryEngine, new PubSubMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryEngine.shutdown();
+    }
+
+    @Test
+    void publishWithRetries_RetriesOnlyFailedEvents() throws Exception {
+        PublishRequest request = PublishRequest.newBuilder()
+                .setTopicName("/event/Test__e")
+                .addEvents(ProducerEvent.newBuilder().setId("a"))
+                .addEvents(ProducerEvent.newBuilder().setId("b"))
+                .addEvents(ProducerEvent.newBuilder().setId("c"))
+                .build();
+
+        PublishResponse response = publish.publishWithRetries(request, attempt -> {
+            sent.add(attempt);
+            // The first attempt fails for event b only
+            PublishResponse.Builder builder = PublishResponse.newBuilder().setRpcId("rpc-" + sent.size());
+            for (ProducerEvent event : attempt.getEventsList()) {
+                PublishResult.Builder result = PublishResult.newBuilder().setCorrelationKey(event.getId());
+                if (sent.size() == 1 && event.getId().equals("b")) {
+                    result.setError(Error.newBuilder().setCode(ErrorCode.PUBLISH).setMsg("try again"));
+                }
+                builder.addResults(result);
+            }
+            return CompletableFuture.completedFuture(builder.build());
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).getEventsList()).extracting(ProducerEvent::getId).containsExactly("b");
+        assertThat(response.getResultsList()).extracting(PublishResult::getCorrelationKey).containsExactly("a", "b", "c");
+        assertThat(response.getResultsList()).noneMatch(PublishResult::hasError);
+        assertThat(response.getRpcId()).isEqualTo("rpc-2");
+    }
+
+    @Test
+    void publishWithRetries_FinalErrorCode_IsNotRetried() throws Exception {
+        PublishRequest request = PublishRequest.newBuilder()
+                .setTopicName("/event/Test__e")
+                .addEvents(ProducerEvent.newBuilder().setId("a"))
+                .build();
+
+        PublishResponse response = publish.publishWithRetries(request, attempt -> {
+            sent.add(attempt);
+            return CompletableFuture.completedFuture(PublishResponse.newBuilder()
+                    .addResults(PublishResult.newBuilder().setCorrelationKey("a")
+                            .setError(Error.newBuilder().setCode(ErrorCode.UNKNOWN).setMsg("invalid payload")))
+                    .build());
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(sent).hasSize(1);
+        assertThat(response.getResults(0).getError().getCode()).isEqualTo(ErrorCode.UNKNOWN);
+    }
+}
@@ -0,0 +1,151 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.PublishException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RetryEngineTest {
+
+    private PubSubConfiguration config;
+    private SimpleMeterRegistry meterRegistry;
+    private RetryEngine retryEngine;
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        config = new PubSubConfiguration();
+        config.getRetry().setInitialBackoffMs(1);
+        config.getRetry().setMaxBackoffMs(4);
+        meterRegistry = new SimpleMeterRegistry();
+        retryEngine = new RetryEngine(config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryEngine.shutdown();
+    }
+
+    @Test
+    void backoffMs_DoublesUpToMax() {
+        assertThat(retryEngine.backoffMs(1)).isEqualTo(1);
+        assertThat(retryEngine.backoffMs(2)).isEqualTo(2);
+        assertThat(retryEngine.backoffMs(30)).isEqualTo(4);
+    }
+
+    @Test
+    void execute_RetryableFailure_RetriesUntilSuccess() throws Exception {
+        CompletableFuture<String> result = retryEngine.execute("test", () -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException())
+                : CompletableFuture.completedFuture("done"));
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.get("pubsub.retry.attempts").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_WrappedRetryableFailure_GivesUpAfterMaxAttempts() {
+        CompletableFuture<String> result = retryEngine.execute("test", () -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new PublishException("failed", "PUBLISH_ERROR",
+                    Status.UNAVAILABLE.asRuntimeException()));
+        });
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PublishException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void executeBlocking_NonRetryableFailure_FailsAtOnce() {
+        assertThatThrownBy(() -> retryEngine.executeBlocking("test", () -> {
+            attempts.incrementAndGet();
+            throw Status.INVALID_ARGUMENT.asRuntimeException();
+        }).join()).hasCauseInstanceOf(StatusRuntimeException.class);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void executeBlocking_RetryableFailure_RetriesOnVirtualThread() {
+        String result = retryEngine.executeBlocking("test", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw Status.DEADLINE_EXCEEDED.asRuntimeException();
+            }
+            return Thread.currentThread().isVirtual() ? "virtual" : "platform";
+        }).join();
+
+        assertThat(result).isEqualTo("virtual");
+    }
+
+    @Test
+    void execute_Cancelled_DoesNotRunScheduledRetry() throws InterruptedException {
+        config.getRetry().setInitialBackoffMs(200);
+        config.getRetry().setMaxBackoffMs(200);
+        RetryEngine slow = new RetryEngine(config, meterRegistry);
+        try {
+            CompletableFuture<String> result = slow.execute("test", () -> {
+                attempts.incrementAndGet();
+                return CompletableFuture.failedFuture(Status.UNAVAILABLE.asRuntimeException());
+            });
+            result.cancel(false);
+            Thread.sleep(500);
+
+            assertThat(attempts).hasValue(1);
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    void executeBlocking_BudgetSpent_DoesNotRetry() {
+        config.getRetry().setBudgetPercent(0);
+        config.getRetry().setBudgetMinRetriesPerSecond(0);
+        RetryEngine noBudget = new RetryEngine(config, meterRegistry);
+        try {
+            assertThatThrownBy(() -> noBudget.executeBlocking("test", () -> {
+                attempts.incrementAndGet();
+                throw Status.UNAVAILABLE.asRuntimeException();
+            }).join()).hasCauseInstanceOf(StatusRuntimeException.class);
+            assertThat(attempts).hasValue(1);
+            assertThat(meterRegistry.get("pubsub.retry.budget.exhausted").counter().count()).isEqualTo(1);
+        } finally {
+            noBudget.shutdown();
+        }
+    }
+
+    @Test
+    void retryBudget_AllowsPercentageOfCallsInWindow() {
+        AtomicLong clock = new AtomicLong(100_000);
+        RetryBudget budget = new RetryBudget(10, 0, 10, clock::get);
+        for (int i = 0; i < 20; i++) {
+            budget.onCall();
+        }
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+
+        // The calls leave the window
+        clock.addAndGet(10_000);
+        for (int i = 0; i < 10; i++) {
+            budget.onCall();
+        }
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,94 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.SchemaFetchException;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.SchemaInfo;
+import com.salesforce.eventbus.protobuf.TopicInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SchemaRegistryTest {
+
+    private static final String TOPIC = "/event/Test__e";
+    private static final String SCHEMA_JSON = "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":[{\"name\":\"Name\",\"type\":\"string\"}]}";
+
+    private SchemaRegistry schemaRegistry;
+
+    @Mock
+    private IPubSubService pubSubService;
+
+    @Mock
+    private SalesforceCredentialManager credentialManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pubSubService.getTopicInfoAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(TopicInfo.newBuilder().setTopicName(TOPIC).setSchemaId("schema-1").build()));
+        when(pubSubService.getSchemaInfoAsync(eq("schema-1"), any()))
+                .thenReturn(CompletableFuture.completedFuture(
+                        SchemaInfo.newBuilder().setSchemaId("schema-1").setSchemaJson(SCHEMA_JSON).build()));
+        schemaRegistry = new SchemaRegistry(pubSubService, credentialManager, new PubSubConfiguration(),
+                new PubSubMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        schemaRegistry.shutdown();
+    }
+
+    @Test
+    void getTopicSchema_CalledRepeatedly_FetchesTopicAndSchemaOnce() {
+        SchemaRegistry.RegisteredSchema first = schemaRegistry.getTopicSchema(TOPIC, null);
+        SchemaRegistry.RegisteredSchema second = schemaRegistry.getTopicSchema(TOPIC, null);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.schema().getName()).isEqualTo("Test__e");
+        verify(pubSubService, times(1)).getTopicInfoAsync(any(), any());
+        verify(pubSubService, times(1)).getSchemaInfoAsync(any(), any());
+    }
+
+    @Test
+    void getSchemaById_SharedWithTopicLookup() {
+        schemaRegistry.getTopicSchema(TOPIC, null);
+
+        assertThat(schemaRegistry.getSchemaById("schema-1", null).schemaId()).isEqualTo("schema-1");
+        verify(pubSubService, times(1)).getSchemaInfoAsync(any(), any());
+    }
+
+    @Test
+    void getTopicSchema_LoadFails_ThrowsCauseAndRetriesOnNextLookup() {
+        when(pubSubService.getTopicInfoAsync(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new SchemaFetchException("unavailable", "GRPC_ERROR")))
+                .thenReturn(CompletableFuture.completedFuture(TopicInfo.newBuilder().setTopicName(TOPIC).setSchemaId("schema-1").build()));
+
+        assertThatThrownBy(() -> schemaRegistry.getTopicSchema(TOPIC, null)).isInstanceOf(SchemaFetchException.class);
+        assertThat(schemaRegistry.getTopicSchema(TOPIC, null).schemaId()).isEqualTo("schema-1");
+    }
+
+    @Test
+    void invalidateTopic_NextLookupFetchesTopicAgain() {
+        schemaRegistry.getTopicSchema(TOPIC, null);
+        schemaRegistry.invalidateTopic(TOPIC);
+        schemaRegistry.getTopicSchema(TOPIC, null);
+
+        verify(pubSubService, times(2)).getTopicInfoAsync(any(), any());
+        verify(pubSubService, times(1)).getSchemaInfoAsync(any(), any());
+    }
+}
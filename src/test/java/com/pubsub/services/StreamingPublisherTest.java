@@ -0,0 +1,99 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.exceptions.PublishException;
+import com.salesforce.eventbus.protobuf.ProducerEvent;
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import com.salesforce.eventbus.protobuf.PublishRequest;
+import com.salesforce.eventbus.protobuf.PublishResponse;
+import com.salesforce.eventbus.protobuf.PublishResult;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StreamingPublisherTest {
+
+    private static final String TOPIC = "/event/Test__e";
+
+    private StreamingPublisher streamingPublisher;
+
+    @Mock
+    private IPubSubService pubSubService;
+
+    @Mock
+    private PubSubGrpc.PubSubStub asyncStub;
+
+    @Mock
+    private StreamObserver<PublishRequest> requestObserver;
+
+    private ArgumentCaptor<StreamObserver<PublishResponse>> responseObserver;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        responseObserver = ArgumentCaptor.forClass(StreamObserver.class);
+        when(pubSubService.openStream(any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<PubSubGrpc.PubSubStub, ?>>getArgument(1).apply(asyncStub));
+        when(asyncStub.publishStream(responseObserver.capture())).thenReturn(requestObserver);
+        streamingPublisher = new StreamingPublisher(pubSubService, new PubSubConfiguration());
+    }
+
+    @Test
+    void publish_ResponsesOutOfOrder_MatchedByCorrelationKey() {
+        CompletableFuture<PublishResponse> first = streamingPublisher.publish(request("a"), null);
+        CompletableFuture<PublishResponse> second = streamingPublisher.publish(request("b"), null);
+
+        verify(asyncStub, times(1)).publishStream(any());
+        verify(requestObserver, times(2)).onNext(any());
+        assertThat(streamingPublisher.inFlight(TOPIC)).isEqualTo(2);
+
+        responseObserver.getValue().onNext(response("b", "rpc-b"));
+        assertThat(first).isNotDone();
+        assertThat(second.join().getRpcId()).isEqualTo("rpc-b");
+
+        responseObserver.getValue().onNext(response("a", "rpc-a"));
+        assertThat(first.join().getRpcId()).isEqualTo("rpc-a");
+        assertThat(streamingPublisher.inFlight(TOPIC)).isZero();
+    }
+
+    @Test
+    void publish_StreamFails_FailsPendingAndReopens() {
+        CompletableFuture<PublishResponse> pending = streamingPublisher.publish(request("a"), null);
+
+        responseObserver.getValue().onError(Status.UNAVAILABLE.asRuntimeException());
+
+        assertThat(pending).isCompletedExceptionally();
+        assertThat(pending.exceptionNow()).isInstanceOf(PublishException.class);
+
+        streamingPublisher.publish(request("b"), null);
+        verify(asyncStub, times(2)).publishStream(any());
+    }
+
+    private static PublishRequest request(String id) {
+        return PublishRequest.newBuilder()
+                .setTopicName(TOPIC)
+                .addEvents(ProducerEvent.newBuilder().setId(id).setSchemaId("schema"))
+                .build();
+    }
+
+    private static PublishResponse response(String correlationKey, String rpcId) {
+        return PublishResponse.newBuilder()
+                .addResults(PublishResult.newBuilder().setCorrelationKey(correlationKey))
+                .setRpcId(rpcId)
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.pubsub.services;
+
+import com.google.protobuf.ByteString;
+import com.pubsub.checkpoint.CheckpointStore;
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.deadletter.DeadLetterRecord;
+import com.pubsub.deadletter.DeadLetterSpool;
+import com.pubsub.events.ProcessEventManager;
+import com.pubsub.metrics.PubSubMetrics;
+import com.pubsub.models.ProcessedEvent;
+import com.pubsub.utils.AvroDeserializer;
+import com.pubsub.utils.AvroSerializer;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.FetchRequest;
+import com.salesforce.eventbus.protobuf.FetchResponse;
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import com.salesforce.eventbus.protobuf.ReplayPreset;
+import com.salesforce.eventbus.protobuf.SchemaInfo;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SubscribeTest {
+
+    private static final String TOPIC = "/event/Test__e";
+    private static final String OBSERVER = "TestObserver";
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":[{\"name\":\"Name\",\"type\":\"string\"}]}");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Subscribe subscribe;
+
+    @Mock
+    private ProcessEventManager processEventManager;
+
+    @Mock
+    private SchemaRegistry schemaRegistry;
+
+    @Mock
+    private DeadLetterSpool deadLetters;
+
+    @Mock
+    private IPubSubService pubSubService;
+
+    @Mock
+    private PubSubGrpc.PubSubStub asyncStub;
+
+    @Mock
+    private StreamObserver<FetchRequest> requestObserver;
+
+    @Mock
+    private StreamObserver<FetchRequest> reconnectedRequestObserver;
+
+    @Mock
+    private SalesforceCredentialManager credentialManager;
+
+    @Mock
+    private TopicSchema topicSchema;
+
+    @Mock
+    private CheckpointStore checkpointStore;
+
+    @Mock
+    private SubscriptionSupervisor supervisor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(schemaRegistry.getSchemaById(eq("schema-1"), any()))
+                .thenReturn(new SchemaRegistry.RegisteredSchema(SchemaInfo.newBuilder().setSchemaId("schema-1").build(), SCHEMA));
+        when(processEventManager.notifyObserver(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(pubSubService.openStream(any(), any()))
+                .thenAnswer(invocation -> invocation.<Function<PubSubGrpc.PubSubStub, ?>>getArgument(1).apply(asyncStub));
+        when(asyncStub.subscribe(any())).thenReturn(requestObserver, reconnectedRequestObserver);
+        when(checkpointStore.load(TOPIC)).thenReturn(Optional.empty());
+        subscribe = new Subscribe(pubSubService, new PubSubConfiguration(), null, credentialManager, topicSchema, null,
+                processEventManager, null, schemaRegistry, new AvroDeserializer(), checkpointStore, deadLetters, supervisor,
+                new PubSubMetrics(meterRegistry));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startSubscription_StreamCompletedByServer_ReconnectsWithConfiguredReplayPreset() {
+        SubscriptionSupervisor.Supervision supervision = mock(SubscriptionSupervisor.Supervision.class);
+        ArgumentCaptor<Consumer<SubscriptionSupervisor.Supervision>> reconnect = ArgumentCaptor.forClass(Consumer.class);
+        when(supervisor.supervise(eq(TOPIC), reconnect.capture())).thenReturn(supervision);
+        ArgumentCaptor<StreamObserver<FetchResponse>> responseObserver = ArgumentCaptor.forClass(StreamObserver.class);
+
+        subscribe.startSubscription(TOPIC, 10, ReplayPreset.EARLIEST, null);
+        verify(asyncStub).subscribe(responseObserver.capture());
+        responseObserver.getValue().onCompleted();
+
+        ArgumentCaptor<Throwable> failure = ArgumentCaptor.forClass(Throwable.class);
+        verify(supervision).onRetryableFailure(failure.capture());
+        assertThat(Status.fromThrowable(failure.getValue()).getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+
+        reconnect.getValue().accept(supervision);
+
+        verify(asyncStub, times(2)).subscribe(any());
+        assertThat(firstRequest(requestObserver).getReplayPreset()).isEqualTo(ReplayPreset.EARLIEST);
+        assertThat(firstRequest(reconnectedRequestObserver).getReplayPreset()).isEqualTo(ReplayPreset.EARLIEST);
+    }
+
+    @Test
+    void redeliver_DecodesAndNotifiesFailedObserverOnly() throws Exception {
+        ByteString payload = new AvroSerializer().serialize(new GenericRecordBuilder(SCHEMA).set("Name", "first").build());
+
+        assertThat(subscribe.redeliver(record("schema-1", payload), null)).isCompleted();
+
+        ArgumentCaptor<ProcessedEvent> event = ArgumentCaptor.forClass(ProcessedEvent.class);
+        verify(processEventManager).notifyObserver(eq(TOPIC), eq(OBSERVER), event.capture());
+        assertThat(event.getValue().getRecord().get("Name").toString()).isEqualTo("first");
+        verify(processEventManager, never()).notifyObservers(any(), any());
+        verify(deadLetters, never()).append(any());
+    }
+
+    @Test
+    void redeliver_StillUndecodable_DeadLettersAgainAndCompletes() {
+        DeadLetterRecord record = record("unknown-schema", ByteString.copyFromUtf8("not avro"));
+
+        assertThat(subscribe.redeliver(record, null)).isCompleted();
+
+        ArgumentCaptor<DeadLetterRecord> deadLettered = ArgumentCaptor.forClass(DeadLetterRecord.class);
+        verify(deadLetters).append(deadLettered.capture());
+        assertThat(deadLettered.getValue().observer()).isEqualTo(OBSERVER);
+        assertThat(deadLettered.getValue().payload()).isEqualTo(record.payload());
+        verify(processEventManager, never()).notifyObserver(any(), any(), any());
+        assertThat(failedCount("decode")).isEqualTo(1);
+        assertThat(failedCount("observer")).isZero();
+    }
+
+    @Test
+    void redeliver_DispatchFails_DeadLettersAndCountsObserverFailure() throws Exception {
+        ByteString payload = new AvroSerializer().serialize(new GenericRecordBuilder(SCHEMA).set("Name", "first").build());
+        when(processEventManager.notifyObserver(any(), any(), any())).thenThrow(new IllegalArgumentException("unknown observer"));
+
+        assertThat(subscribe.redeliver(record("schema-1", payload), null)).isCompleted();
+
+        verify(deadLetters).append(any());
+        assertThat(failedCount("observer")).isEqualTo(1);
+        assertThat(failedCount("decode")).isZero();
+    }
+
+    private double failedCount(String stage) {
+        return meterRegistry.get(PubSubMetrics.METRIC_EVENTS_FAILED).tags(PubSubMetrics.TAG_TOPIC, TOPIC, PubSubMetrics.TAG_STAGE, stage).counter().count();
+    }
+
+    private static FetchRequest firstRequest(StreamObserver<FetchRequest> requestObserver) {
+        ArgumentCaptor<FetchRequest> requests = ArgumentCaptor.forClass(FetchRequest.class);
+        verify(requestObserver, atLeastOnce()).onNext(requests.capture());
+        return requests.getAllValues().get(0);
+    }
+
+    private static DeadLetterRecord record(String schemaId, ByteString payload) {
+        return new DeadLetterRecord(1700000000000L, TOPIC, schemaId, ByteString.copyFrom(new byte[]{0, 0, 0, 1}),
+                payload, OBSERVER, "java.lang.IllegalStateException: boom");
+    }
+}
@@ -0,0 +1,70 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.config.SalesforceSubscribeConfig;
+import com.pubsub.utils.SalesforceCredentialManager;
+import com.salesforce.eventbus.protobuf.ReplayPreset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class SubscriptionManagerTest {
+
+    @Mock
+    private Subscribe subscribe;
+
+    @Mock
+    private SalesforceCredentialManager credentialManager;
+
+    private SalesforceSubscribeConfig salesforceSubscribeConfig;
+    private SubscriptionManager subscriptionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PubSubConfiguration config = new PubSubConfiguration();
+        config.getEventProcessing().setBatchSize(5);
+        salesforceSubscribeConfig = new SalesforceSubscribeConfig();
+        salesforceSubscribeConfig.getSubscriptions().add(subscription("/data/AccountChangeEvent", 100, ReplayPreset.EARLIEST));
+        salesforceSubscribeConfig.getSubscriptions().add(subscription("/event/Order__e", null, ReplayPreset.LATEST));
+        subscriptionManager = new SubscriptionManager(subscribe, config, salesforceSubscribeConfig, credentialManager);
+    }
+
+    @Test
+    void startSubscriptions_StartsEveryConfiguredTopic() {
+        subscriptionManager.startSubscriptions();
+
+        verify(subscribe, timeout(5000)).startSubscription(eq("/data/AccountChangeEvent"), eq(100), eq(ReplayPreset.EARLIEST), any());
+        verify(subscribe, timeout(5000)).startSubscription(eq("/event/Order__e"), eq(5), eq(ReplayPreset.LATEST), any());
+        assertThat(subscriptionManager.isConfigured("/event/Order__e")).isTrue();
+        assertThat(subscriptionManager.isConfigured("/event/LoginEventStream")).isFalse();
+    }
+
+    @Test
+    void startSubscriptions_ListeningOff_StartsNothing() throws Exception {
+        salesforceSubscribeConfig.setEventListeningOn(false);
+
+        subscriptionManager.startSubscriptions();
+        Thread.sleep(100);
+
+        verify(subscribe, never()).startSubscription(anyString(), anyInt(), any(), any());
+    }
+
+    private static SalesforceSubscribeConfig.TopicSubscription subscription(String topic, Integer batchSize, ReplayPreset replayPreset) {
+        SalesforceSubscribeConfig.TopicSubscription subscription = new SalesforceSubscribeConfig.TopicSubscription();
+        subscription.setTopic(topic);
+        subscription.setBatchSize(batchSize);
+        subscription.setReplayPreset(replayPreset);
+        return subscription;
+    }
+}
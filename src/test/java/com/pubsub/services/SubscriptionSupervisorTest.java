@@ -0,0 +1,91 @@
+package com.pubsub.services;
+
+import com.pubsub.config.PubSubConfiguration;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SubscriptionSupervisorTest {
+
+    private static final String TOPIC = "/event/LoginEventStream";
+
+    private PubSubConfiguration config;
+    private SimpleMeterRegistry meterRegistry;
+    private SubscriptionSupervisor supervisor;
+
+    @BeforeEach
+    void setUp() {
+        config = new PubSubConfiguration();
+        config.getReconnect().setInitialBackoffMs(1);
+        config.getReconnect().setMaxBackoffMs(8);
+        config.getReconnect().setCircuitBreakerThreshold(3);
+        config.getReconnect().setCircuitOpenMs(60000);
+        meterRegistry = new SimpleMeterRegistry();
+        supervisor = new SubscriptionSupervisor(config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        supervisor.shutdown();
+    }
+
+    @Test
+    void backoffMs_DoublesUpToMax() {
+        assertThat(supervisor.backoffMs(1)).isEqualTo(1);
+        assertThat(supervisor.backoffMs(2)).isEqualTo(2);
+        assertThat(supervisor.backoffMs(4)).isEqualTo(8);
+        assertThat(supervisor.backoffMs(40)).isEqualTo(8);
+    }
+
+    @Test
+    void onFailure_RetryableStatus_Reconnects() throws Exception {
+        CountDownLatch reconnected = new CountDownLatch(1);
+        SubscriptionSupervisor.Supervision supervision = supervisor.supervise(TOPIC, s -> reconnected.countDown());
+
+        supervision.onFailure(Status.UNAVAILABLE.asRuntimeException());
+
+        assertThat(reconnected.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("pubsub.subscription.reconnects").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void onFailure_FatalStatus_DoesNotReconnect() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        SubscriptionSupervisor.Supervision supervision = supervisor.supervise(TOPIC, s -> attempts.incrementAndGet());
+
+        supervision.onFailure(Status.PERMISSION_DENIED.asRuntimeException());
+        Thread.sleep(100);
+
+        assertThat(attempts).hasValue(0);
+    }
+
+    @Test
+    void onFailure_RepeatedFailures_OpenCircuitUntilConnected() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch circuitOpened = new CountDownLatch(1);
+        SubscriptionSupervisor.Supervision supervision = supervisor.supervise(TOPIC, s -> {
+            attempts.incrementAndGet();
+            s.onFailure(Status.UNAVAILABLE.asRuntimeException());
+            if (s.isCircuitOpen()) {
+                circuitOpened.countDown();
+            }
+        });
+
+        supervision.onFailure(Status.UNAVAILABLE.asRuntimeException());
+
+        assertThat(circuitOpened.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.get("pubsub.subscription.circuit.open").gauge().value()).isEqualTo(1);
+
+        supervision.onConnected();
+        assertThat(supervision.isCircuitOpen()).isFalse();
+    }
+}
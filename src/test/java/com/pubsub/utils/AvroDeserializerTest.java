@@ -0,0 +1,76 @@
+package com.pubsub.utils;
+
+import com.google.protobuf.ByteString;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AvroDeserializerTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":["
+                    + "{\"name\":\"CreatedDate\",\"type\":\"long\"},"
+                    + "{\"name\":\"Name\",\"type\":\"string\"}]}");
+    // A later version of the event with a field the payload does not carry
+    private static final Schema OTHER_SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":["
+                    + "{\"name\":\"CreatedDate\",\"type\":\"long\"},"
+                    + "{\"name\":\"Name\",\"type\":\"string\"},"
+                    + "{\"name\":\"Amount\",\"type\":\"long\"}]}");
+
+    private final AvroSerializer serializer = new AvroSerializer();
+    private final AvroDeserializer deserializer = new AvroDeserializer();
+
+    @Test
+    void deserialize_ValidPayload_RoundTrips() throws Exception {
+        GenericRecord decoded = deserializer.deserialize("schema-1", SCHEMA, serializer.serialize(record("first")));
+
+        assertThat(decoded.get("CreatedDate")).isEqualTo(42L);
+        assertThat(decoded.get("Name").toString()).isEqualTo("first");
+    }
+
+    @Test
+    void deserialize_PayloadsOfDifferentSizes_DecodedIndependently() throws Exception {
+        String large = "x".repeat(10_000);
+
+        GenericRecord first = deserializer.deserialize("schema-1", SCHEMA, serializer.serialize(record(large)));
+        GenericRecord second = deserializer.deserialize("schema-1", SCHEMA, serializer.serialize(record("second")));
+
+        assertThat(first.get("Name").toString()).isEqualTo(large);
+        assertThat(second.get("Name").toString()).isEqualTo("second");
+    }
+
+    @Test
+    void deserialize_SchemaMismatch_FailsAndLeavesDecoderUsable() throws Exception {
+        ByteString payload = serializer.serialize(record("first"));
+
+        assertThatThrownBy(() -> deserializer.deserialize("schema-2", OTHER_SCHEMA, payload)).isInstanceOf(EOFException.class);
+        assertThat(deserializer.deserialize("schema-1", SCHEMA, payload).get("Name").toString()).isEqualTo("first");
+    }
+
+    @Test
+    void deserialize_CorruptPayload_Fails() throws Exception {
+        ByteString payload = serializer.serialize(record("first"));
+        ByteString truncated = payload.substring(0, payload.size() - 2);
+        // CreatedDate 1, then a negative string length
+        ByteString negativeLength = ByteString.copyFrom(new byte[]{0x02, 0x01});
+
+        assertThatThrownBy(() -> deserializer.deserialize("schema-1", SCHEMA, truncated)).isInstanceOf(EOFException.class);
+        assertThatThrownBy(() -> deserializer.deserialize("schema-1", SCHEMA, negativeLength)).isInstanceOf(AvroRuntimeException.class);
+        assertThat(deserializer.deserialize("schema-1", SCHEMA, payload).get("Name").toString()).isEqualTo("first");
+    }
+
+    private static GenericRecord record(String name) {
+        return new GenericRecordBuilder(SCHEMA)
+                .set("CreatedDate", 42L)
+                .set("Name", name)
+                .build();
+    }
+}
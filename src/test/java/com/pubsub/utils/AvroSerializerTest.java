@@ -0,0 +1,59 @@
+package com.pubsub.utils;
+
+import com.google.protobuf.ByteString;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvroSerializerTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Test__e\",\"fields\":["
+                    + "{\"name\":\"CreatedDate\",\"type\":\"long\"},"
+                    + "{\"name\":\"Name\",\"type\":\"string\"}]}");
+
+    private final AvroSerializer serializer = new AvroSerializer();
+    private final AvroDeserializer deserializer = new AvroDeserializer();
+
+    @Test
+    void serialize_RoundTripsThroughDeserializer() throws Exception {
+        GenericRecord record = record(42L, "first");
+
+        ByteString payload = serializer.serialize(record);
+        GenericRecord decoded = deserializer.deserialize("schema-1", SCHEMA, payload);
+
+        assertThat(decoded.get("CreatedDate")).isEqualTo(42L);
+        assertThat(decoded.get("Name").toString()).isEqualTo("first");
+    }
+
+    @Test
+    void serialize_ReusedBuffer_ProducesIndependentPayloads() throws Exception {
+        ByteString large = serializer.serialize(record(1L, "a much longer name than the next one"));
+        ByteString small = serializer.serialize(record(2L, "short"));
+
+        assertThat(deserializer.deserialize("schema-1", SCHEMA, large).get("Name").toString())
+                .isEqualTo("a much longer name than the next one");
+        assertThat(deserializer.deserialize("schema-1", SCHEMA, small).get("Name").toString())
+                .isEqualTo("short");
+        assertThat(small.size()).isLessThan(large.size());
+    }
+
+    @Test
+    void serialize_EventLargerThanRetainedBuffer_IsEncodedCompletely() throws Exception {
+        String name = "x".repeat(2 * 1024 * 1024);
+
+        ByteString payload = serializer.serialize(record(3L, name));
+
+        assertThat(deserializer.deserialize("schema-1", SCHEMA, payload).get("Name").toString()).hasSize(name.length());
+    }
+
+    private static GenericRecord record(long createdDate, String name) {
+        return new GenericRecordBuilder(SCHEMA)
+                .set("CreatedDate", createdDate)
+                .set("Name", name)
+                .build();
+    }
+}
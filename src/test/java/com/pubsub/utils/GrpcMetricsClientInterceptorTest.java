@@ -0,0 +1,71 @@
+package com.pubsub.utils;
+
+import com.salesforce.eventbus.protobuf.PubSubGrpc;
+import com.salesforce.eventbus.protobuf.SchemaRequest;
+import com.salesforce.eventbus.protobuf.TopicInfo;
+import com.salesforce.eventbus.protobuf.TopicRequest;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GrpcMetricsClientInterceptorTest {
+
+    private static final String GET_TOPIC = "eventbus.v1.PubSub/GetTopic";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (channel != null) {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (server != null) {
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void unaryCall_RecordsDurationMessagesAndBytes() throws Exception {
+        server = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+                .addService(new PubSubGrpc.PubSubImplBase() {
+                    @Override
+                    public void getTopic(TopicRequest request, StreamObserver<TopicInfo> responseObserver) {
+                        responseObserver.onNext(TopicInfo.newBuilder().setTopicName(request.getTopicName()).setRpcId("rpc-1").build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+
+        PubSubGrpc.newBlockingStub(ClientInterceptors.intercept(channel, new GrpcMetricsClientInterceptor(meterRegistry, 1)))
+                .getTopic(TopicRequest.newBuilder().setTopicName("/event/Test__e").build());
+
+        assertThat(meterRegistry.get("pubsub.grpc.client.call.duration").tag("method", GET_TOPIC).tag("status", "OK")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pubsub.grpc.client.messages.sent").tag("method", GET_TOPIC).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pubsub.grpc.client.messages.received").tag("method", GET_TOPIC).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("pubsub.grpc.client.bytes.sent").tag("method", GET_TOPIC).counter().count()).isPositive();
+        assertThat(meterRegistry.get("pubsub.grpc.client.bytes.received").tag("method", GET_TOPIC).counter().count()).isPositive();
+    }
+
+    @Test
+    void rpcId_ReadsResponseFieldOnly() {
+        assertThat(GrpcMetricsClientInterceptor.rpcId(TopicInfo.newBuilder().setRpcId("rpc-1").build())).isEqualTo("rpc-1");
+        assertThat(GrpcMetricsClientInterceptor.rpcId(SchemaRequest.getDefaultInstance())).isEqualTo("n/a");
+        assertThat(GrpcMetricsClientInterceptor.rpcId(null)).isEqualTo("n/a");
+    }
+}
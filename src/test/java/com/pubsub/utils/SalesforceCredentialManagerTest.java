@@ -0,0 +1,114 @@
+package com.pubsub.utils;
+
+import com.pubsub.config.PubSubConfiguration;
+import com.pubsub.metrics.PubSubMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SalesforceCredentialManagerTest {
+
+    private SalesforceCredentialManager credentialManager;
+    private PubSubConfiguration config;
+
+    @Mock
+    private SalesforceSessionTokenService sessionTokenService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config = new PubSubConfiguration();
+        credentialManager = new SalesforceCredentialManager(sessionTokenService, config, new PubSubMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        credentialManager.shutdown();
+    }
+
+    @Test
+    void currentSession_CalledRepeatedly_LogsInOnce() {
+        when(sessionTokenService.login()).thenReturn(session("token-1"));
+
+        assertThat(credentialManager.currentSession().getToken()).isEqualTo("token-1");
+        assertThat(credentialManager.currentSession().getToken()).isEqualTo("token-1");
+
+        verify(sessionTokenService, times(1)).login();
+    }
+
+    @Test
+    void refreshAsync_ConcurrentCallers_ShareOneLogin() throws Exception {
+        CountDownLatch loginStarted = new CountDownLatch(1);
+        CountDownLatch releaseLogin = new CountDownLatch(1);
+        when(sessionTokenService.login()).thenAnswer(invocation -> {
+            loginStarted.countDown();
+            releaseLogin.await(5, TimeUnit.SECONDS);
+            return session("token-1");
+        });
+
+        CompletableFuture<APISessionCredentials> first = credentialManager.refreshAsync();
+        assertThat(loginStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<APISessionCredentials> second = credentialManager.refreshAsync();
+        releaseLogin.countDown();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.get(5, TimeUnit.SECONDS).getToken()).isEqualTo("token-1");
+        verify(sessionTokenService, times(1)).login();
+    }
+
+    @Test
+    void onUnauthenticated_SessionOlderThanMinInterval_RefreshesSession() {
+        config.getAuth().setMinRefreshIntervalSeconds(0);
+        when(sessionTokenService.login()).thenReturn(session("token-1"), session("token-2"));
+        credentialManager.currentSession();
+
+        credentialManager.onUnauthenticated();
+        credentialManager.refreshAsync().join();
+
+        assertThat(credentialManager.currentSession().getToken()).isEqualTo("token-2");
+    }
+
+    @Test
+    void onUnauthenticated_SessionJustAcquired_KeepsSession() {
+        when(sessionTokenService.login()).thenReturn(session("token-1"), session("token-2"));
+        credentialManager.currentSession();
+
+        credentialManager.onUnauthenticated();
+
+        assertThat(credentialManager.currentSession().getToken()).isEqualTo("token-1");
+        verify(sessionTokenService, times(1)).login();
+    }
+
+    @Test
+    void awaitRefresh_BurstOfRejectedCalls_ReusesRecentSession() {
+        when(sessionTokenService.login()).thenReturn(session("token-1"), session("token-2"));
+        credentialManager.currentSession();
+
+        assertThat(IntStream.range(0, 5).parallel().allMatch(i -> credentialManager.awaitRefresh())).isTrue();
+
+        assertThat(credentialManager.currentSession().getToken()).isEqualTo("token-1");
+        verify(sessionTokenService, times(1)).login();
+    }
+
+    private static APISessionCredentials session(String token) {
+        APISessionCredentials credentials = new APISessionCredentials();
+        credentials.setToken(token);
+        credentials.setInstanceURL("https://test.salesforce.com");
+        credentials.setTenantId("ORGID");
+        credentials.setIssuedAt(System.currentTimeMillis());
+        return credentials;
+    }
+}
@@ -0,0 +1,100 @@
+package com.pubsub.utils;
+
+import com.pubsub.config.PubSubConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TopicConcurrencyLimiterTest {
+
+    private final ExecutorService executor = ExecutorFactory.newExecutor(PubSubConfiguration.ExecutionMode.VIRTUAL, 1, "test-");
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void forTopic_VirtualThreads_NeverExceedsPermitsPerTopic() {
+        TopicConcurrencyLimiter limiter = new TopicConcurrencyLimiter(3);
+        Executor topicExecutor = limiter.forTopic("/event/Test__e", executor);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        CompletableFuture<?>[] tasks = IntStream.range(0, 50)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(5);
+                    running.decrementAndGet();
+                }, topicExecutor))
+                .toArray(CompletableFuture[]::new);
+
+        assertThat(CompletableFuture.allOf(tasks)).succeedsWithin(10, TimeUnit.SECONDS);
+        assertThat(maxRunning.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void forTopic_TopicsHaveSeparatePermits() {
+        TopicConcurrencyLimiter limiter = new TopicConcurrencyLimiter(1);
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        CompletableFuture.runAsync(blocker::join, limiter.forTopic("/event/A__e", executor));
+
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> { }, limiter.forTopic("/event/B__e", executor));
+
+        assertThat(other).succeedsWithin(5, TimeUnit.SECONDS);
+        blocker.complete(null);
+    }
+
+    @Test
+    void forTopic_PlatformThreads_WaitingTasksDoNotHoldWorkers() {
+        ExecutorService pool = ExecutorFactory.newExecutor(PubSubConfiguration.ExecutionMode.PLATFORM, 2, "test-");
+        try {
+            TopicConcurrencyLimiter limiter = new TopicConcurrencyLimiter(1);
+            Executor busyTopic = limiter.forTopic("/event/A__e", pool);
+            CompletableFuture<Void> blocker = new CompletableFuture<>();
+            CompletableFuture<?>[] busy = IntStream.range(0, 3)
+                    .mapToObj(i -> CompletableFuture.runAsync(blocker::join, busyTopic))
+                    .toArray(CompletableFuture[]::new);
+
+            CompletableFuture<Void> other = CompletableFuture.runAsync(() -> { }, limiter.forTopic("/event/B__e", pool));
+
+            assertThat(other).succeedsWithin(5, TimeUnit.SECONDS);
+            blocker.complete(null);
+            assertThat(CompletableFuture.allOf(busy)).succeedsWithin(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void setLimit_RaisedAfterForTopic_StartsWaitingTasks() {
+        TopicConcurrencyLimiter limiter = new TopicConcurrencyLimiter(1);
+        Executor topicExecutor = limiter.forTopic("/event/A__e", executor);
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        CompletableFuture.runAsync(blocker::join, topicExecutor);
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> { }, topicExecutor);
+        sleep(50);
+        assertThat(waiting).isNotDone();
+
+        limiter.setLimit("/event/A__e", 2);
+
+        assertThat(waiting).succeedsWithin(5, TimeUnit.SECONDS);
+        blocker.complete(null);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}